@@ -34,6 +34,7 @@ import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
@@ -97,7 +98,7 @@ public abstract class Oml2OwlTask extends DefaultTask {
     public abstract Property<File> getOutputCatalogPath();
 
 	/**
-	 * Extension for the output OWL files (default=owl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld, fss).
+	 * Extension for the output OWL files (default=owl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld, fss, brf, each optionally followed by .gz).
 	 * 
 	 * @return String Property
 	 */
@@ -141,6 +142,103 @@ public abstract class Oml2OwlTask extends DefaultTask {
     @Input
     public abstract Property<String> getOmlAnnotations();
 
+	/**
+	 * Number of threads to load and convert ontologies in parallel (default=1, 0=number of cores).
+	 * 
+	 * @return Integer Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Integer> getThreads();
+
+	/**
+	 * Whether to stop validation on the first resource with problems.
+	 * 
+	 * @return Boolean Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Boolean> getFailFast();
+
+	/**
+	 * Maximum number of validation problems to report (default=0 which means no limit).
+	 * 
+	 * @return Integer Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Integer> getMaxProblems();
+
+	/**
+	 * Path of a file that caches validation results of unchanged resources.
+	 * 
+	 * @return File Property
+	 */
+    @Internal
+    public abstract Property<File> getValidationCachePath();
+
+	/**
+	 * Path of a folder that caches the closure axioms of vocabulary bundles.
+	 * 
+	 * @return File Property
+	 */
+    @Internal
+    public abstract Property<File> getClosureCachePath();
+
+	/**
+	 * Whether to stream description ontologies directly to their output files (only for ttl, nt, nq extensions, optionally followed by .gz).
+	 * 
+	 * @return Boolean Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Boolean> getStreamDescriptions();
+
+	/**
+	 * Number of threads to save output files while ontologies are converted (default=1 which means saving sequentially, 0=number of cores).
+	 * 
+	 * @return Integer Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Integer> getSaveThreads();
+
+	/**
+	 * Maximum number of output files waiting to be saved before conversion waits for them (default=16).
+	 * 
+	 * @return Integer Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Integer> getSaveQueueSize();
+
+	/**
+	 * Whether to leave output files untouched when their content has not changed.
+	 * 
+	 * @return Boolean Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Boolean> getSkipUnchanged();
+
+	/**
+	 * Path of a folder to export all the ontologies to as named graphs in N-Quads shard files.
+	 * 
+	 * @return File Property
+	 */
+    @Optional
+    @OutputDirectory
+    public abstract Property<File> getDatasetPath();
+
+	/**
+	 * Number of N-Quads shard files of the exported dataset (default=4).
+	 * 
+	 * @return Integer Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Integer> getDatasetShards();
+
     /**
 	 * The debug flag
 	 * 
@@ -218,6 +316,53 @@ public abstract class Oml2OwlTask extends DefaultTask {
 	    if (getOmlAnnotations().isPresent()) {
     		args.add("-an");
         	args.add(getOmlAnnotations().get());
+	    }
+	    if (getThreads().isPresent()) {
+    		args.add("-t");
+        	args.add(getThreads().get().toString());
+	    }
+	    if (getFailFast().isPresent()) {
+	    	if (getFailFast().get()) {
+	    		args.add("-ff");
+	    	}
+	    }
+	    if (getMaxProblems().isPresent()) {
+    		args.add("-mp");
+        	args.add(getMaxProblems().get().toString());
+	    }
+	    if (getValidationCachePath().isPresent()) {
+    		args.add("-vc");
+        	args.add(getValidationCachePath().get().getAbsolutePath());
+	    }
+	    if (getClosureCachePath().isPresent()) {
+    		args.add("-cc");
+        	args.add(getClosureCachePath().get().getAbsolutePath());
+	    }
+	    if (getStreamDescriptions().isPresent()) {
+	    	if (getStreamDescriptions().get()) {
+	    		args.add("-sd");
+	    	}
+	    }
+	    if (getSaveThreads().isPresent()) {
+    		args.add("-st");
+        	args.add(getSaveThreads().get().toString());
+	    }
+	    if (getSaveQueueSize().isPresent()) {
+    		args.add("-sq");
+        	args.add(getSaveQueueSize().get().toString());
+	    }
+	    if (getSkipUnchanged().isPresent()) {
+	    	if (getSkipUnchanged().get()) {
+	    		args.add("-su");
+	    	}
+	    }
+	    if (getDatasetPath().isPresent()) {
+    		args.add("-dp");
+        	args.add(getDatasetPath().get().getAbsolutePath());
+	    }
+	    if (getDatasetShards().isPresent()) {
+    		args.add("-ds");
+        	args.add(getDatasetShards().get().toString());
 	    }
 		if (getDebug().isPresent() && getDebug().get()) {
 		    args.add("-d");
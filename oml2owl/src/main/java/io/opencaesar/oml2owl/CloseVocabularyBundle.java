@@ -23,14 +23,23 @@ import static io.opencaesar.closeworld.Axiom.AxiomType.DISJOINT_UNION;
 import static io.opencaesar.closeworld.OwlAxiom.toOwlAxiom;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.eclipse.emf.ecore.resource.Resource;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLOntology;
 
 import io.opencaesar.closeworld.Axiom;
@@ -55,53 +64,326 @@ public class CloseVocabularyBundle {
 	 */
 	protected final Set<Resource> scope;
 
+	/**
+	 * The pool that runs the parallel steps of the algorithm (null to run them sequentially)
+	 */
+	protected ForkJoinPool pool;
+
 	/**
 	 * Creates a new CloseVocabularyBundle object
 	 * 
 	 * @param bundle The vocabulary bundle
 	 */
 	public CloseVocabularyBundle(final VocabularyBundle bundle) {
-		scope = OmlRead.getImportScope(bundle);
+		this(OmlRead.getImportScope(bundle));
 	}
 
 	/**
-	 * Returns a transitively-reduced concept taxonomy, rooted at Universal, from a collection of Oml ontologies.
+	 * Creates a new CloseVocabularyBundle object
 	 * 
-	 * @param allVocabularies
-	 * @return concept taxonomy
+	 * @param scope The (precomputed) import scope of the vocabulary bundle
+	 */
+	public CloseVocabularyBundle(final Set<Resource> scope) {
+		this.scope = scope;
+	}
+
+	/**
+	 * Sets the pool that runs the parallel steps of the algorithm. The steps search the Oml model, so a pool
+	 * should only be given when all the cross references of the resource set are resolved.
+	 * 
+	 * @param pool The bounded pool (or null to run the steps sequentially)
+	 * @return this object
 	 */
-	private Taxonomy omlConceptTaxonomy(final Collection<Vocabulary> allVocabularies) {
-		final Map<Entity, ClassExpression.Unitary> singletonMap = new HashMap<Entity, ClassExpression.Unitary>();
-		final List<ClassExpression> vertexList = new ArrayList<ClassExpression>();
-		final List<ClassExpression> edgeList = new ArrayList<ClassExpression>();
+	public CloseVocabularyBundle withPool(final ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
 
-		allVocabularies.stream()
+	/**
+	 * Performs the given action for each index from 0 to the given count, in parallel on the pool if any.
+	 * When called from a task of the pool, the action runs on the same pool (so nested steps stay bounded).
+	 * 
+	 * @param count The number of indices
+	 * @param action The action to perform for each index
+	 */
+	protected void forEachIndex(final int count, final IntConsumer action) {
+		if (pool == null || count <= 1) {
+			for (int i = 0; i < count; i++) {
+				action.accept(i);
+			}
+		} else {
+			pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, count).parallel().forEach(action)));
+		}
+	}
+
+	/**
+	 * Returns the transitively-reduced specialization graph of the concepts of a collection of Oml ontologies.
+	 * 
+	 * The graph is kept in int-indexed adjacency arrays (a vertex's super vertices are
+	 * superTargets[superOffsets[v]..superOffsets[v+1]]) and its super edges are computed in parallel (on the pool). The
+	 * transitive reduction is done on this compact graph, so only the reduced edges are given to the Taxonomy.
+	 * 
+	 * @param allVocabularies
+	 * @return concept graph
+	 */
+	protected ConceptGraph omlConceptGraph(final Collection<Vocabulary> allVocabularies) {
+		final List<Entity> entities = allVocabularies.stream()
 			.flatMap(v -> OmlRead.getMembers(v).stream())
 			.filter(e -> e instanceof Entity && !(e instanceof Aspect))
 			.map(e -> (Entity)e)
 			.filter(e -> !e.isRef())
-			.forEach(entity -> {
-					final ClassExpression.Unitary s = new ClassExpression.Unitary((entity.getIri()));
-					singletonMap.put(entity, s);
-					vertexList.add(s);
-			});
+			.collect(Collectors.toList());
+		final int vertexCount = entities.size();
+		final Map<Entity, Integer> indices = new HashMap<Entity, Integer>(vertexCount * 2);
+		for (int i = 0; i < vertexCount; i++) {
+			indices.put(entities.get(i), i);
+		}
 
-		allVocabularies.stream()
-			.flatMap(v -> OmlRead.getMembers(v).stream())
-			.filter(e -> e instanceof Entity && !(e instanceof Aspect))
-			.map(e -> (Entity)e)
-			.forEach(term -> {
-					final ClassExpression.Unitary subSingleton = singletonMap.get(term);
-					OmlSearch.findSuperTerms(term, scope).stream().forEach(superTerm -> {
-						final ClassExpression.Unitary superSingleton = singletonMap.get(superTerm);
-						if (superSingleton != null) {
-							edgeList.add(superSingleton);
-							edgeList.add(subSingleton);
+		// compute the super vertices of every vertex in parallel
+		final int[][] supers = new int[vertexCount][];
+		forEachIndex(vertexCount, i -> {
+			supers[i] = OmlSearch.findSuperTerms(entities.get(i), scope).stream()
+				.map(superTerm -> indices.get(superTerm))
+				.filter(j -> j != null && j != i)
+				.mapToInt(j -> j)
+				.distinct()
+				.toArray();
+		});
+
+		// pack them into adjacency arrays
+		final int[] superOffsets = new int[vertexCount + 1];
+		for (int i = 0; i < vertexCount; i++) {
+			superOffsets[i + 1] = superOffsets[i] + supers[i].length;
+		}
+		final int[] superTargets = new int[superOffsets[vertexCount]];
+		for (int i = 0; i < vertexCount; i++) {
+			System.arraycopy(supers[i], 0, superTargets, superOffsets[i], supers[i].length);
+			supers[i] = null;
+		}
+
+		// keep the super edges that are not implied by other super edges
+		final boolean[] reduced = transitiveReduction(superOffsets, superTargets);
+
+		final List<String> vertexIris = new ArrayList<String>(vertexCount);
+		entities.forEach(entity -> vertexIris.add(entity.getIri()));
+		return new ConceptGraph(vertexIris, superOffsets, superTargets, reduced, true);
+	}
+
+	/**
+	 * Computes the transitive reduction of an acyclic graph given as adjacency arrays. An edge from v to a
+	 * direct super vertex s is redundant when s is also reachable from another direct super vertex of v.
+	 * 
+	 * @param offsets The offsets of the super vertices of each vertex in targets 
+	 * @param targets The super vertices of all the vertices
+	 * @return whether each edge (by its index in targets) is kept in the reduction
+	 */
+	boolean[] transitiveReduction(final int[] offsets, final int[] targets) {
+		final int vertexCount = offsets.length - 1;
+		final boolean[] kept = new boolean[targets.length];
+		// per thread search state: a visit stamp per vertex (avoids clearing a visited set for every vertex) and a stack
+		final ThreadLocal<int[]> stamps = ThreadLocal.withInitial(() -> new int[vertexCount]);
+		final ThreadLocal<int[]> stacks = ThreadLocal.withInitial(() -> new int[vertexCount]);
+		forEachIndex(vertexCount, v -> {
+			if (offsets[v + 1] - offsets[v] == 1) {
+				kept[offsets[v]] = true;
+				return;
+			}
+			final int[] stamp = stamps.get();
+			final int[] stack = stacks.get();
+			final int mark = v + 1;
+			// mark the vertices reachable from the super vertices of v in one step or more
+			int top = 0;
+			for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+				final int s = targets[k];
+				for (int l = offsets[s]; l < offsets[s + 1]; l++) {
+					final int t = targets[l];
+					if (stamp[t] != mark) {
+						stamp[t] = mark;
+						stack[top++] = t;
+					}
+				}
+			}
+			while (top > 0) {
+				final int u = stack[--top];
+				for (int l = offsets[u]; l < offsets[u + 1]; l++) {
+					final int t = targets[l];
+					if (stamp[t] != mark) {
+						stamp[t] = mark;
+						stack[top++] = t;
+					}
+				}
+			}
+			for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+				kept[k] = stamp[targets[k]] != mark;
+			}
+		});
+		return kept;
+	}
+
+	/**
+	 * A transitively-reduced specialization graph between concepts, identified by their IRIs
+	 */
+	protected static class ConceptGraph {
+
+		private final List<String> vertexIris;
+		private final int[] superOffsets;
+		private final int[] superTargets;
+		private final boolean[] reduced;
+		private final boolean rooted;
+
+		ConceptGraph(final List<String> vertexIris, final int[] superOffsets, final int[] superTargets, final boolean[] reduced, final boolean rooted) {
+			this.vertexIris = vertexIris;
+			this.superOffsets = superOffsets;
+			this.superTargets = superTargets;
+			this.reduced = reduced;
+			this.rooted = rooted;
+		}
+
+		/**
+		 * Whether the taxonomy of the graph is rooted at Universal (otherwise the graph has a single root concept)
+		 * 
+		 * @return whether the graph is rooted at Universal
+		 */
+		public boolean isRooted() {
+			return rooted;
+		}
+
+		/**
+		 * Gets the IRIs of the concepts
+		 * 
+		 * @return the concept IRIs
+		 */
+		public List<String> getVertexIris() {
+			return vertexIris;
+		}
+
+		/**
+		 * Gets the edges of the transitive reduction as pairs of (super, sub) concept IRIs 
+		 * 
+		 * @return the reduced edges
+		 */
+		public List<String[]> getEdgeIris() {
+			final List<String[]> edges = new ArrayList<String[]>();
+			for (int i = 0; i < vertexIris.size(); i++) {
+				for (int k = superOffsets[i]; k < superOffsets[i + 1]; k++) {
+					if (reduced[k]) {
+						edges.add(new String[] { vertexIris.get(superTargets[k]), vertexIris.get(i) });
+					}
+				}
+			}
+			return edges;
+		}
+
+		/**
+		 * Splits the graph into parts whose closure axioms can be generated independently and together are the
+		 * closure axioms of the whole graph.
+		 * 
+		 * The closure of a weakly-connected component of the graph only depends on that component, except for
+		 * the disjointness between the top concepts of all the components (the children of Universal). A component
+		 * with a single root concept keeps that root on top once treeified, so it becomes a part of its own (that
+		 * is not rooted at Universal). The first part (which is rooted at Universal) has the other components and
+		 * the roots of the single-root components, so it has the disjointness axioms between the top concepts.
+		 * 
+		 * @return the parts of the graph (the first part is rooted at Universal)
+		 */
+		public List<ConceptGraph> split() {
+			final int vertexCount = vertexIris.size();
+
+			// find the weakly-connected components (by union-find) and the root vertices
+			final int[] parents = new int[vertexCount];
+			final boolean[] isRoot = new boolean[vertexCount];
+			for (int i = 0; i < vertexCount; i++) {
+				parents[i] = i;
+				isRoot[i] = true;
+			}
+			for (int i = 0; i < vertexCount; i++) {
+				for (int k = superOffsets[i]; k < superOffsets[i + 1]; k++) {
+					if (reduced[k]) {
+						isRoot[i] = false;
+						final int a = find(parents, i);
+						final int b = find(parents, superTargets[k]);
+						if (a != b) {
+							parents[Math.max(a, b)] = Math.min(a, b);
 						}
-					});
-			});
-		
-		return new Taxonomy(vertexList, edgeList).transitiveReduction().rootAt(new ClassExpression.Universal());
+					}
+				}
+			}
+			final Map<Integer, List<Integer>> components = new LinkedHashMap<Integer, List<Integer>>();
+			for (int i = 0; i < vertexCount; i++) {
+				components.computeIfAbsent(find(parents, i), c -> new ArrayList<Integer>()).add(i);
+			}
+
+			final List<ConceptGraph> parts = new ArrayList<ConceptGraph>();
+			final boolean[] inFirstPart = new boolean[vertexCount];
+			for (List<Integer> component : components.values()) {
+				final List<Integer> roots = component.stream().filter(i -> isRoot[i]).collect(Collectors.toList());
+				if (component.size() > 1 && roots.size() == 1) {
+					parts.add(subGraph(component, false));
+					inFirstPart[roots.get(0)] = true;
+				} else {
+					component.forEach(i -> inFirstPart[i] = true);
+				}
+			}
+			final List<Integer> firstPart = new ArrayList<Integer>();
+			for (int i = 0; i < vertexCount; i++) {
+				if (inFirstPart[i]) {
+					firstPart.add(i);
+				}
+			}
+			parts.add(0, subGraph(firstPart, true));
+			return parts;
+		}
+
+		private ConceptGraph subGraph(final List<Integer> vertices, final boolean rooted) {
+			final Map<Integer, Integer> indices = new HashMap<Integer, Integer>(vertices.size() * 2);
+			vertices.forEach(i -> indices.put(i, indices.size()));
+			final List<String> subVertexIris = new ArrayList<String>(vertices.size());
+			final int[] subOffsets = new int[vertices.size() + 1];
+			final List<Integer> subTargets = new ArrayList<Integer>();
+			for (int j = 0; j < vertices.size(); j++) {
+				final int i = vertices.get(j);
+				subVertexIris.add(vertexIris.get(i));
+				for (int k = superOffsets[i]; k < superOffsets[i + 1]; k++) {
+					final Integer target = indices.get(superTargets[k]);
+					if (reduced[k] && target != null) {
+						subTargets.add(target);
+					}
+				}
+				subOffsets[j + 1] = subTargets.size();
+			}
+			final boolean[] subReduced = new boolean[subTargets.size()];
+			Arrays.fill(subReduced, true);
+			return new ConceptGraph(subVertexIris, subOffsets, subTargets.stream().mapToInt(t -> t).toArray(), subReduced, rooted);
+		}
+
+		private static int find(final int[] parents, int i) {
+			while (parents[i] != i) {
+				parents[i] = parents[parents[i]];
+				i = parents[i];
+			}
+			return i;
+		}
+
+		/**
+		 * Converts the graph to a taxonomy (rooted at Universal if the graph is rooted)
+		 * 
+		 * @return concept taxonomy
+		 */
+		public Taxonomy toTaxonomy() {
+			final List<ClassExpression> vertexList = new ArrayList<ClassExpression>(vertexIris.size());
+			vertexIris.forEach(iri -> vertexList.add(new ClassExpression.Unitary(iri)));
+			final List<ClassExpression> edgeList = new ArrayList<ClassExpression>();
+			for (int i = 0; i < vertexIris.size(); i++) {
+				for (int k = superOffsets[i]; k < superOffsets[i + 1]; k++) {
+					if (reduced[k]) {
+						edgeList.add(vertexList.get(superTargets[k]));
+						edgeList.add(vertexList.get(i));
+					}
+				}
+			}
+			final Taxonomy taxonomy = new Taxonomy(vertexList, edgeList);
+			return rooted ? taxonomy.rootAt(new ClassExpression.Universal()) : taxonomy;
+		}
 	}
 
 	/**
@@ -124,6 +406,16 @@ public class CloseVocabularyBundle {
 		 */
 		protected final OwlApi owlApi;
 
+		/**
+		 * The cache of closure axioms (can be null)
+		 */
+		protected ClosureCache cache;
+
+		/**
+		 * The IRI of the bundle (the key of its closure axioms in the cache)
+		 */
+		protected String bundleIri;
+
 		/**
 		 * Creates a new CloseVocabularyBundleToOwl object
 		 * 
@@ -133,12 +425,43 @@ public class CloseVocabularyBundle {
 		 * @param owlApi The Owl API
 		 */
 		public CloseVocabularyBundleToOwl(final VocabularyBundle bundle, final OWLOntology ontology, final boolean disjointUnions, final OwlApi owlApi) {
-			super(bundle);
+			this(OmlRead.getImportScope(bundle), ontology, disjointUnions, owlApi);
+		}
+
+		/**
+		 * Creates a new CloseVocabularyBundleToOwl object
+		 * 
+		 * @param scope The (precomputed) import scope of the vocabulary bundle
+		 * @param ontology The Owl ontology
+		 * @param disjointUnions Whether to add djsjointUnion axioms
+		 * @param owlApi The Owl API
+		 */
+		public CloseVocabularyBundleToOwl(final Set<Resource> scope, final OWLOntology ontology, final boolean disjointUnions, final OwlApi owlApi) {
+			super(scope);
 			this.ontology = ontology;
 			this.disjointUnions = disjointUnions;
 			this.owlApi = owlApi;
 		}
 
+		/**
+		 * Sets the cache used to reuse the closure axioms of the bundle when its concept graph has not changed
+		 * 
+		 * @param cache The closure cache
+		 * @param bundleIri The IRI of the bundle
+		 * @return this object
+		 */
+		public CloseVocabularyBundleToOwl withCache(final ClosureCache cache, final String bundleIri) {
+			this.cache = cache;
+			this.bundleIri = bundleIri;
+			return this;
+		}
+
+		@Override
+		public CloseVocabularyBundleToOwl withPool(final ForkJoinPool pool) {
+			super.withPool(pool);
+			return this;
+		}
+
 		/**
 		 * Runs the algorithm
 		 */
@@ -148,12 +471,61 @@ public class CloseVocabularyBundle {
 					.filter(o -> o instanceof Vocabulary)
 					.map(o -> (Vocabulary)o)
 					.collect(Collectors.toList());
-			final Taxonomy conceptTaxonomy = super.omlConceptTaxonomy(allVocabularies);
+			final ConceptGraph conceptGraph = super.omlConceptGraph(allVocabularies);
 			final Axiom.AxiomType axiomType = disjointUnions ? DISJOINT_UNION : DISJOINT_CLASSES;
 
-			conceptTaxonomy.generateClosureAxioms(axiomType).forEach(a -> {
-				owlApi.addAxiom(ontology, toOwlAxiom(a, owlApi));
-			});
+			// the axioms are converted first so the Owl API is only locked while they are added
+			// (several bundles may be closed concurrently with the same Owl API)
+			final Collection<OWLAxiom> axioms = getClosureAxioms(conceptGraph, axiomType);
+			synchronized (owlApi) {
+				axioms.forEach(a -> owlApi.addAxiom(ontology, a));
+			}
+		}
+
+		/**
+		 * Gets the closure axioms of the given concept graph (reusing the cached axioms of the graph or of its
+		 * parts if any, which are the same as the generated ones)
+		 * 
+		 * @param conceptGraph The concept graph of the bundle
+		 * @param axiomType The type of the closure axioms
+		 * @return the closure axioms
+		 */
+		Collection<OWLAxiom> getClosureAxioms(final ConceptGraph conceptGraph, final Axiom.AxiomType axiomType) {
+			Collection<OWLAxiom> axioms;
+			if (cache != null) {
+				final ClosureCache.Entry entry = cache.get(bundleIri);
+				final String fingerprint = cache.getFingerprint(conceptGraph, axiomType.name());
+				axioms = entry.getAxioms(fingerprint);
+				if (axioms == null) {
+					// only generate the closure axioms of the parts of the graph that changed since they were cached
+					final List<ConceptGraph> parts = conceptGraph.split();
+					final List<String> fingerprints = parts.stream()
+							.map(p -> cache.getFingerprint(p, axiomType.name()))
+							.collect(Collectors.toList());
+					final List<Collection<OWLAxiom>> partAxioms = new ArrayList<>(Collections.nCopies(parts.size(), null));
+					forEachIndex(parts.size(), i -> {
+						final Collection<OWLAxiom> cachedAxioms = entry.getPartAxioms(fingerprints.get(i));
+						partAxioms.set(i, (cachedAxioms != null) ? cachedAxioms : generateClosureAxioms(parts.get(i), axiomType));
+					});
+					final Map<String, Collection<OWLAxiom>> cachedParts = new LinkedHashMap<>();
+					for (int i = 0; i < parts.size(); i++) {
+						cachedParts.put(fingerprints.get(i), partAxioms.get(i));
+					}
+					axioms = partAxioms.stream()
+							.flatMap(c -> c.stream())
+							.collect(Collectors.toCollection(LinkedHashSet::new));
+					cache.put(bundleIri, fingerprint, cachedParts);
+				}
+			} else {
+				axioms = generateClosureAxioms(conceptGraph, axiomType);
+			}
+			return axioms;
+		}
+
+		private List<OWLAxiom> generateClosureAxioms(final ConceptGraph conceptGraph, final Axiom.AxiomType axiomType) {
+			return conceptGraph.toTaxonomy().generateClosureAxioms(axiomType).stream()
+					.map(a -> toOwlAxiom(a, owlApi))
+					.collect(Collectors.toList());
 		}
 	}
 
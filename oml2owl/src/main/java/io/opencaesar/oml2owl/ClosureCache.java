@@ -0,0 +1,230 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import io.opencaesar.oml2owl.CloseVocabularyBundle.ConceptGraph;
+
+/**
+ * An on-disk cache of the closure axioms of vocabulary bundles. The axioms of a bundle are stored in one file
+ * (in functional syntax) with sections for the parts of the bundle's concept graph, each keyed by a fingerprint
+ * of the part (an annotation on the part's axioms), along with a fingerprint of the whole graph. An entry is
+ * read once per bundle, and the axioms of the whole graph or of its parts are reused as long as a later run
+ * computes the same fingerprints.
+ */
+class ClosureCache {
+
+	private static final String PART_IRI = "urn:opencaesar:oml2owl:closure-cache#part";
+	private static final String GRAPH_IRI = "urn:opencaesar:oml2owl:closure-cache#graph";
+
+	private final Logger LOGGER = LogManager.getLogger(ClosureCache.class);
+
+	private final File cacheFolder;
+	private final String version;
+
+	/**
+	 * Creates a new ClosureCache object
+	 *
+	 * @param cacheFolder The folder that persists the cache
+	 * @param version The version of the tool (entries written by another version are not reused)
+	 */
+	public ClosureCache(File cacheFolder, String version) {
+		this.cacheFolder = cacheFolder;
+		this.version = version;
+	}
+
+	/**
+	 * Computes the fingerprint of the given concept graph. It does not depend on the order of the
+	 * concepts or edges, and only depends on the edges of the transitive reduction.
+	 *
+	 * @param graph The concept graph of a bundle
+	 * @param axiomType The type of the closure axioms
+	 * @return a fingerprint of the graph
+	 */
+	public String getFingerprint(ConceptGraph graph, String axiomType) {
+		final MessageDigest digest = createDigest();
+		update(digest, version);
+		update(digest, axiomType);
+		update(digest, String.valueOf(graph.isRooted()));
+		graph.getVertexIris().stream().sorted().forEach(iri -> update(digest, iri));
+		update(digest, "");
+		graph.getEdgeIris().stream()
+			.map(e -> e[0]+" "+e[1])
+			.sorted()
+			.forEach(e -> update(digest, e));
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Gets the cached entry of the given bundle
+	 *
+	 * @param bundleIri The IRI of the bundle
+	 * @return the cached entry (an empty one when the bundle has no entry)
+	 */
+	public Entry get(String bundleIri) {
+		final File file = getFile(bundleIri);
+		if (!file.isFile()) {
+			return new Entry(null, Collections.emptyMap());
+		}
+		try {
+			final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+			final OWLOntology ontology = manager.loadOntologyFromOntologyDocument(file);
+			final OWLAnnotationProperty partProperty = manager.getOWLDataFactory().getOWLAnnotationProperty(PART_IRI);
+			final String fingerprint = ontology.annotations()
+				.filter(a -> a.getProperty().getIRI().toString().equals(GRAPH_IRI))
+				.map(a -> a.getValue().asLiteral().get().getLiteral())
+				.findFirst().orElse(null);
+			final Map<String, List<OWLAxiom>> parts = new LinkedHashMap<>();
+			ontology.axioms().filter(a -> a.isLogicalAxiom()).forEach(a -> {
+				final List<OWLAnnotation> otherAnnotations = a.annotations().filter(n -> !n.getProperty().equals(partProperty)).collect(Collectors.toList());
+				final OWLAxiom axiom = a.getAxiomWithoutAnnotations().getAnnotatedAxiom(otherAnnotations);
+				a.annotations(partProperty).forEach(n -> parts.computeIfAbsent(n.getValue().asLiteral().get().getLiteral(), p -> new ArrayList<>()).add(axiom));
+			});
+			LOGGER.info("Reading cached closure axioms: "+file);
+			return new Entry(fingerprint, parts);
+		} catch (Exception e) {
+			LOGGER.warn("Could not read cached closure axioms: "+file, e);
+			return new Entry(null, Collections.emptyMap());
+		}
+	}
+
+	/**
+	 * Stores the closure axioms of the given bundle (replacing its previous entry)
+	 *
+	 * @param bundleIri The IRI of the bundle
+	 * @param fingerprint The fingerprint of the bundle's concept graph
+	 * @param parts The closure axioms of the parts of the bundle's concept graph by their fingerprints
+	 */
+	public void put(String bundleIri, String fingerprint, Map<String, ? extends Collection<OWLAxiom>> parts) {
+		final File file = getFile(bundleIri);
+		try {
+			cacheFolder.mkdirs();
+			final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+			final OWLDataFactory factory = manager.getOWLDataFactory();
+			final OWLOntology ontology = manager.createOntology();
+			final OWLAnnotationProperty partProperty = factory.getOWLAnnotationProperty(PART_IRI);
+			manager.applyChange(new AddOntologyAnnotation(ontology, factory.getOWLAnnotation(factory.getOWLAnnotationProperty(GRAPH_IRI), factory.getOWLLiteral(fingerprint))));
+			final List<OWLAxiom> axioms = new ArrayList<>();
+			parts.forEach((partFingerprint, partAxioms) -> {
+				final OWLAnnotation partAnnotation = factory.getOWLAnnotation(partProperty, factory.getOWLLiteral(partFingerprint));
+				partAxioms.forEach(a -> axioms.add(a.getAnnotatedAxiom(Collections.singleton(partAnnotation))));
+			});
+			manager.addAxioms(ontology, axioms.stream().sorted(Comparator.naturalOrder()).collect(Collectors.toList()));
+			final File tempFile = File.createTempFile(file.getName(), ".tmp", cacheFolder);
+			try (OutputStream output = new FileOutputStream(tempFile)) {
+				manager.saveOntology(ontology, new FunctionalSyntaxDocumentFormat(), output);
+			}
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception e) {
+			LOGGER.warn("Could not cache closure axioms: "+file, e);
+		}
+	}
+
+	private File getFile(String bundleIri) {
+		return new File(cacheFolder, getKey(bundleIri)+".ofn");
+	}
+
+	private static String getKey(String bundleIri) {
+		final MessageDigest digest = createDigest();
+		update(digest, bundleIri);
+		return HexFormat.of().formatHex(digest.digest(), 0, 8);
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The cached closure axioms of a bundle
+	 */
+	static class Entry {
+		private final String fingerprint;
+		private final Map<String, List<OWLAxiom>> parts;
+
+		private Entry(String fingerprint, Map<String, List<OWLAxiom>> parts) {
+			this.fingerprint = fingerprint;
+			this.parts = parts;
+		}
+
+		/**
+		 * Gets the cached closure axioms of the whole concept graph
+		 *
+		 * @param fingerprint The fingerprint of the bundle's current concept graph
+		 * @return the cached axioms, or null when the entry has another fingerprint
+		 */
+		public Collection<OWLAxiom> getAxioms(String fingerprint) {
+			if (!fingerprint.equals(this.fingerprint)) {
+				return null;
+			}
+			final Set<OWLAxiom> axioms = new LinkedHashSet<>();
+			parts.values().forEach(axioms::addAll);
+			return axioms;
+		}
+
+		/**
+		 * Gets the cached closure axioms of a part of the concept graph
+		 *
+		 * @param partFingerprint The fingerprint of the part
+		 * @return the cached axioms, or null when the entry has no part with the given fingerprint
+		 */
+		public Collection<OWLAxiom> getPartAxioms(String partFingerprint) {
+			return parts.get(partFingerprint);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+import org.semanticweb.owlapi.formats.NQuadsDocumentFormat;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.rio.RioRenderer;
+
+/**
+ * Exports Owl ontologies as the named graphs of a dataset split into a fixed number of N-Quads shards.
+ * Ontologies are rendered by the calling threads, and each shard is appended by its own writer thread
+ * (with a bounded queue of rendered ontologies). Blank nodes are relabeled per ontology since their labels
+ * are only unique within the rendering of one ontology, while they are scoped to a whole shard file.
+ * The first failure of a writer thread is recorded and rethrown when the exporter is closed.
+ */
+class DatasetExporter {
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+	private final List<FileChannel> channels = new ArrayList<>();
+	private final List<ThreadPoolExecutor> writers = new ArrayList<>();
+	private final AtomicLong graphCount = new AtomicLong();
+	private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+	/**
+	 * Creates a new DatasetExporter object
+	 *
+	 * @param folder The folder of the shard files
+	 * @param shardCount The number of shard files
+	 * @param queueSize The maximum number of rendered ontologies waiting to be written to each shard
+	 * @throws IOException when the shard files cannot be created
+	 */
+	public DatasetExporter(File folder, int shardCount, int queueSize) throws IOException {
+		folder.mkdirs();
+		try {
+			for (int i = 0; i < shardCount; i++) {
+				final File file = new File(folder, String.format("shard-%03d.nq", i));
+				channels.add(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+				// a full queue blocks the rendering thread until the writer catches up
+				writers.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)), (task, executor) -> {
+					try {
+						executor.getQueue().put(task);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException(e);
+					}
+				}));
+			}
+		} catch (IOException | RuntimeException e) {
+			// close the shards opened before the failure
+			shutdownNow();
+			throw e;
+		}
+	}
+
+	/**
+	 * Exports the given ontology as a named graph (named by the ontology IRI) in one of the shards
+	 *
+	 * @param ontology The ontology to export
+	 */
+	public void export(OWLOntology ontology) {
+		final String iri = ontology.getOntologyID().getOntologyIRI().get().toString();
+		final String bnodePrefix = "g"+graphCount.incrementAndGet()+"x";
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final RDFWriter writer = Rio.createWriter(RDFFormat.NQUADS, output);
+		new RioRenderer(ontology, new AbstractRDFHandler() {
+			@Override
+			public void startRDF() {
+				writer.startRDF();
+			}
+			@Override
+			public void handleStatement(Statement st) {
+				writer.handleStatement(vf.createStatement(
+						(Resource) relabel(st.getSubject(), bnodePrefix),
+						st.getPredicate(),
+						relabel(st.getObject(), bnodePrefix),
+						st.getContext()));
+			}
+			@Override
+			public void endRDF() {
+				writer.endRDF();
+			}
+		}, new NQuadsDocumentFormat(), vf.createIRI(iri)).render();
+		final int shard = Math.floorMod(iri.hashCode(), channels.size());
+		final FileChannel channel = channels.get(shard);
+		final ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray());
+		writers.get(shard).execute(() -> {
+			try {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			} catch (IOException e) {
+				final Exception exception = new IllegalStateException("Could not export "+iri, e);
+				if (!failure.compareAndSet(null, exception)) {
+					failure.get().addSuppressed(exception);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Gets the number of ontologies exported so far
+	 *
+	 * @return the number of named graphs
+	 */
+	public long getGraphCount() {
+		return graphCount.get();
+	}
+
+	/**
+	 * Waits for the shards to be written, then closes them
+	 *
+	 * @throws Exception when an ontology could not be written to its shard, or the shards cannot be closed
+	 */
+	public void close() throws Exception {
+		for (ThreadPoolExecutor writer : writers) {
+			writer.shutdown();
+		}
+		for (ThreadPoolExecutor writer : writers) {
+			while (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+				// keep waiting for long writes
+			}
+		}
+		for (FileChannel channel : channels) {
+			channel.close();
+		}
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+	}
+
+	/**
+	 * Stops the writer threads without waiting for the pending writes, then closes the shards (does nothing
+	 * once the exporter is closed, and is meant to be called when a failure makes the dataset irrelevant)
+	 */
+	public void shutdownNow() {
+		for (ThreadPoolExecutor writer : writers) {
+			writer.shutdownNow();
+		}
+		for (FileChannel channel : channels) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// the failure that stopped the export is the one reported
+			}
+		}
+	}
+
+	private Value relabel(Value value, String bnodePrefix) {
+		if (value instanceof BNode) {
+			return vf.createBNode(bnodePrefix+((BNode) value).getID());
+		}
+		return value;
+	}
+}
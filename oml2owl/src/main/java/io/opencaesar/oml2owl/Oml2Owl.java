@@ -127,6 +127,9 @@ class Oml2Owl extends OmlSwitch<Void> {
 	public OWLOntology run() {
 		Iterable<EObject> iterable = () -> inputResource.getAllContents();
 		StreamSupport.stream(iterable.spliterator(), false).forEach(i -> doSwitch(i));
+		if (ontology != null) {
+			owl.flush(ontology);
+		}
 		return ontology;
 	}
 
@@ -23,20 +23,39 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.log4j.Appender;
 import org.apache.log4j.AppenderSkeleton;
@@ -48,15 +67,19 @@ import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.util.OnChangeEvictingCache;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.BinaryRDFDocumentFormat;
 import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
 import org.semanticweb.owlapi.formats.N3DocumentFormat;
 import org.semanticweb.owlapi.formats.NQuadsDocumentFormat;
 import org.semanticweb.owlapi.formats.NQuadsDocumentFormatFactory;
 import org.semanticweb.owlapi.formats.NTriplesDocumentFormat;
-import org.semanticweb.owlapi.formats.PrefixDocumentFormat;
 import org.semanticweb.owlapi.formats.RDFJsonDocumentFormat;
 import org.semanticweb.owlapi.formats.RDFJsonLDDocumentFormat;
 import org.semanticweb.owlapi.formats.RDFJsonLDDocumentFormatFactory;
@@ -66,7 +89,6 @@ import org.semanticweb.owlapi.formats.TrigDocumentFormat;
 import org.semanticweb.owlapi.formats.TrigDocumentFormatFactory;
 import org.semanticweb.owlapi.formats.TrixDocumentFormat;
 import org.semanticweb.owlapi.formats.TrixDocumentFormatFactory;
-import org.semanticweb.owlapi.io.WriterDocumentTarget;
 import org.semanticweb.owlapi.model.OWLDocumentFormat;
 import org.semanticweb.owlapi.model.OWLDocumentFormatFactory;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -79,6 +101,7 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 
+import io.opencaesar.oml.Description;
 import io.opencaesar.oml.DescriptionBundle;
 import io.opencaesar.oml.Ontology;
 import io.opencaesar.oml.VocabularyBundle;
@@ -90,6 +113,7 @@ import io.opencaesar.oml.util.OmlRead;
 import io.opencaesar.oml.util.OmlResolve;
 import io.opencaesar.oml.validate.OmlValidator;
 import io.opencaesar.oml2owl.CloseVocabularyBundle.CloseVocabularyBundleToOwl;
+import io.opencaesar.oml2owl.StreamingOwlApi.UnsupportedAxiomException;
 
 /**
  * An application to transform Oml resources into Owl resources
@@ -123,7 +147,7 @@ public class Oml2OwlApp {
 
 	@Parameter(
 			names = { "--output-file-extension", "-f" },
-			description = "Extension for the output OWL files (default=owl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld, fss)",
+			description = "Extension for the output OWL files (default=owl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld, fss, brf, each optionally followed by .gz)",
 			validateWith = FileExtensionValidator.class,
 			required = false)
 	private String outputFileExtension = "owl";
@@ -150,6 +174,72 @@ public class Oml2OwlApp {
 			required = false)
 	private OmlAnnotations omlAnnotations = OmlAnnotations.generate;
 
+	@Parameter(
+			names = { "--threads", "-t" }, 
+			description = "Number of threads to load and convert ontologies in parallel (Optional, default=1, 0=number of cores)", 
+			required = false)
+	private int threads = 1;
+
+	@Parameter(
+			names = { "--fail-fast", "-ff" }, 
+			description = "Whether to stop validation on the first resource with problems (Optional)", 
+			required = false)
+	private boolean failFast;
+
+	@Parameter(
+			names = { "--max-problems", "-mp" }, 
+			description = "Maximum number of validation problems to report (Optional, default=0 which means no limit)", 
+			required = false)
+	private int maxProblems = 0;
+
+	@Parameter(
+			names = { "--validation-cache", "-vc" }, 
+			description = "Path of a file that caches validation results of unchanged resources (Optional)", 
+			required = false)
+	private String validationCachePath = null;
+
+	@Parameter(
+			names = { "--closure-cache", "-cc" }, 
+			description = "Path of a folder that caches the closure axioms of vocabulary bundles (Optional)", 
+			required = false)
+	private String closureCachePath = null;
+
+	@Parameter(
+			names = { "--stream-descriptions", "-sd" }, 
+			description = "Whether to stream description ontologies directly to their output files (Optional, only for ttl, nt, nq extensions, optionally followed by .gz)", 
+			required = false)
+	private boolean streamDescriptions;
+
+	@Parameter(
+			names = { "--save-threads", "-st" }, 
+			description = "Number of threads to save output files while ontologies are converted (Optional, default=1 which means saving sequentially, 0=number of cores)", 
+			required = false)
+	private int saveThreads = 1;
+
+	@Parameter(
+			names = { "--save-queue-size", "-sq" }, 
+			description = "Maximum number of output files waiting to be saved before conversion waits for them (Optional, default=16)", 
+			required = false)
+	private int saveQueueSize = 16;
+
+	@Parameter(
+			names = { "--skip-unchanged", "-su" }, 
+			description = "Whether to leave output files untouched when their content has not changed (Optional)", 
+			required = false)
+	private boolean skipUnchanged;
+
+	@Parameter(
+			names = { "--dataset-path", "-dp" }, 
+			description = "Path of a folder to export all the ontologies to as named graphs in N-Quads shard files (Optional)", 
+			required = false)
+	private String datasetPath = null;
+
+	@Parameter(
+			names = { "--dataset-shards", "-ds" }, 
+			description = "Number of N-Quads shard files of the exported dataset (Optional, default=4)", 
+			required = false)
+	private int datasetShards = 4;
+
 	@Parameter(
 			names = { "--debug", "-d" },
 			description = "Shows debug logging statements")
@@ -210,42 +300,59 @@ public class Oml2OwlApp {
 		OmlStandaloneSetup.doSetup();
 		OmlXMIResourceFactory.register();
 		OmlJsonResourceFactory.register();
-		final ResourceSet inputResourceSet = new ResourceSetImpl();
-		inputResourceSet.eAdapters().add(new ECrossReferenceAdapter());
+		// the conversion threads, and the save threads that write rules files, share the resource set and its
+		// cross reference adapter (see runInParallel)
+		final boolean concurrent = getThreadCount() > 1 || getSaveThreadCount() > 1;
+		final ResourceSet inputResourceSet = createResourceSet(concurrent);
 		
 		final URI inputCatalogUri = URI.createFileURI(inputCatalogPath);
 
 		// load the Oml ontologies
 		Set<String> inputIris = new LinkedHashSet<>(); 
 		if (rootOntologyIri != null) {
-			URI rootUri = resolveRootOntologyIri(rootOntologyIri, inputCatalogUri);
-			LOGGER.info(("Reading: " + rootUri));
-			Ontology rootOntology = OmlRead.getOntology(inputResourceSet.getResource(rootUri, true));
+			URI rootUri = resolveOntologyIri(rootOntologyIri, inputCatalogUri);
+			Ontology rootOntology;
+			if (getThreadCount() > 1) {
+				rootOntology = OmlRead.getOntology(createLoader(inputResourceSet, inputCatalogUri).load(Collections.singletonList(rootUri)).get(0));
+			} else {
+				LOGGER.info(("Reading: " + rootUri));
+				rootOntology = OmlRead.getOntology(inputResourceSet.getResource(rootUri, true));
+			}
 			inputIris.addAll(OmlRead.getImportedOntologyClosure(rootOntology, true).stream().map(i -> i.getIri()).collect(Collectors.toList()));
 		} else {
-			final Collection<File> inputFiles = collectOMLFiles(inputCatalogUri);
-			for (File inputFile : inputFiles) {
-				final URI ontologyUri = URI.createFileURI(inputFile.getAbsolutePath());
-				LOGGER.info(("Reading: " + ontologyUri));
-				Ontology ontology = OmlRead.getOntology(inputResourceSet.getResource(ontologyUri, true));
+			final List<URI> inputUris = collectOMLFiles(inputCatalogUri).stream()
+					.map(i -> URI.createFileURI(i.getAbsolutePath()))
+					.collect(Collectors.toList());
+			List<Resource> inputResources;
+			if (getThreadCount() > 1) {
+				inputResources = createLoader(inputResourceSet, inputCatalogUri).load(inputUris);
+			} else {
+				inputResources = new ArrayList<>();
+				for (URI ontologyUri : inputUris) {
+					LOGGER.info(("Reading: " + ontologyUri));
+					inputResources.add(inputResourceSet.getResource(ontologyUri, true));
+				}
+			}
+			for (Resource inputResource : inputResources) {
+				Ontology ontology = OmlRead.getOntology(inputResource);
 				inputIris.add(ontology.getIri());  
 				LOGGER.debug("Detected encoding: "+((XtextResource)ontology.eResource()).getEncoding());
 			}
 		}
 		
+		// resolve all cross references up front so the worker threads only read the Oml model
+		if (concurrent) {
+			EcoreUtil.resolveAll(inputResourceSet);
+		}
+
 		// validate resources
-		StringBuffer problems = new StringBuffer();
-		for (Resource resource : inputResourceSet.getResources()) {
-			LOGGER.info(("Validating: " + resource.getURI()));
-			String results = OmlValidator.validate(resource);
-	        if (results.length()>0) {
-	        	if (problems.length()>0)
-	        		problems.append("\n\n");
-	        	problems.append(results);
-	        }
+		final ValidationCache validationCache = (validationCachePath != null) ? new ValidationCache(new File(validationCachePath), getAppVersion()) : null;
+		String problems = validate(new ArrayList<>(inputResourceSet.getResources()), validationCache);
+		if (validationCache != null) {
+			validationCache.save();
 		}
 		if (problems.length()>0) {
-			throw new IllegalStateException("\n"+problems.toString());
+			throw new IllegalStateException("\n"+problems);
 		}
 
 		// remove builtin ontologies
@@ -262,11 +369,13 @@ public class Oml2OwlApp {
 					.collect(Collectors.toSet());
 		System.out.println(changed_iris.size()+" oml file(s) have changed");
 
-		// create OWL manager
-		final OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+		// create OWL manager (a concurrent one when ontologies are converted or saved in parallel)
+		final OWLOntologyManager ontologyManager = concurrent ? 
+				OWLManager.createConcurrentOWLOntologyManager() : 
+				OWLManager.createOWLOntologyManager();
 		
-		// create OWL API
-		final OwlApi owl2api = new OwlApi(ontologyManager, annotationsOnAxioms);
+		// create OWL API (that buffers the axioms of each ontology until it is converted)
+		final OwlApi owl2api = new OwlApi(ontologyManager, annotationsOnAxioms, true);
 		final Map<File, OWLOntology> outputFiles = new LinkedHashMap<>();
 		final Map<Resource, OWLOntology> oml2owl = new LinkedHashMap<>();
 		
@@ -278,95 +387,211 @@ public class Oml2OwlApp {
 		// the Jena rule files
 		final Set<Oml2Rules> rules = new LinkedHashSet<>();
 		
-		// create the equivalent OWL ontologies
-        for (String inputIri : inputIris) {
+		// stream descriptions only when the output format is supported by the streaming writer
+		if (streamDescriptions && !StreamingOwlApi.isSupported(FileExtensionValidator.getFormatExtension(outputFileExtension))) {
+			LOGGER.warn("Streaming descriptions is not supported for extension '"+outputFileExtension+"' (options: ttl, nt, nq, each optionally followed by .gz)");
+			streamDescriptions = false;
+		}
+		
+		// streamed descriptions are not kept as Owl ontologies, so they cannot be exported to the dataset
+		if (streamDescriptions && datasetPath != null) {
+			LOGGER.warn("Streaming descriptions is not supported when exporting a dataset");
+			streamDescriptions = false;
+		}
+
+		// determine the ontologies impacted by the changes (the changed ones and the bundles that import them)
+		final OmlImportGraph importGraph = new OmlImportGraph(inputResourceSet);
+		final Set<String> impactedIris = (datasetPath != null) ? new HashSet<>(inputIris) : importGraph.getImpacted(changed_iris);
+		final Map<String, Ontology> ontologies = new LinkedHashMap<>();
+		final Map<String, File> ontologyFiles = new LinkedHashMap<>();
+		for (String inputIri : inputIris) {
             var uri = URI.createURI(inputIri);
             if (uri.scheme() != null) { 
             	outputSchemes.add(uri.scheme());
             }
-            var relativePath = uri.authority()+uri.path();
-			final File outputFile = new File(outputFolderPath+File.separator+relativePath+"."+outputFileExtension);
-			
-			LOGGER.info(("Creating: " + outputFile));
-			final Ontology ontology = OmlRead.getOntologyByIri(inputResourceSet, inputIri);
-			final OWLOntology owlOntology = new Oml2Owl(ontology.eResource(), owl2api, omlAnnotations).run();
-
-			// Only save resources when needed
-			boolean needToSave = changed_iris == null || changed_iris.contains(ontology.getIri());
-			if (!needToSave && (ontology instanceof VocabularyBundle || ontology instanceof DescriptionBundle)) {
-				// any change in the import closure?
-				var importedIris = OmlRead.getImportedOntologyClosure(ontology, false).stream()
-						.map(i -> i.getIri()).collect(Collectors.toSet());
-				importedIris.retainAll(changed_iris);
-				if (!importedIris.isEmpty()) {
-					needToSave = true;
-				}
+			// Only convert and save resources when needed
+			if (impactedIris.contains(inputIri)) {
+				ontologies.put(inputIri, OmlRead.getOntologyByIri(inputResourceSet, inputIri));
+				var relativePath = uri.authority()+uri.path();
+				ontologyFiles.put(inputIri, new File(outputFolderPath+File.separator+relativePath+"."+outputFileExtension));
 			}
-			if (needToSave) {
-				oml2owl.put(ontology.eResource(), owlOntology);
-				outputFiles.put(outputFile, owlOntology);
+		}
+		System.out.println(ontologies.size()+" oml file(s) are impacted");
+
+		// create the save executor (ontologies are saved as soon as they are converted, except for vocabulary bundles that are closed first)
+		final OntologySaver saver = new OntologySaver(ontologyManager, outputFileExtension).withSkipUnchanged(skipUnchanged);
+		final SaveExecutor saveExecutor = new SaveExecutor(getSaveThreadCount(), saveQueueSize);
+		final AtomicInteger savedCount = new AtomicInteger();
+		final AtomicInteger unchangedCount = new AtomicInteger();
+		
+		// create the dataset exporter (it exports every ontology since all of them are impacted then)
+		final DatasetExporter exporter = (datasetPath != null) ? new DatasetExporter(new File(datasetPath), Math.max(1, datasetShards), saveQueueSize) : null;
+
+		// create the bounded pool of the parallel steps of the closure of vocabulary bundles and of the translation of
+		// rules (it is only used once the resource set is fully resolved, i.e., with more than one thread)
+		final ForkJoinPool pool = (getThreadCount() > 1) ? new ForkJoinPool(getThreadCount()) : null;
+
+		// the save threads (and dataset writer threads) are stopped if any stage fails before the outputs are saved
+		// (so they do not keep the process alive)
+		try {
+			// create the equivalent OWL ontologies (the conversion threads only read the resolved Oml model, and
+			// the only adapter whose state they touch, through inverse reference lookups, is the synchronized
+			// cross reference adapter of the resource set)
+			final Map<String, OWLOntology> owlOntologies = runInParallel(ontologies.keySet(), inputIri -> {
+				final Ontology ontology = ontologies.get(inputIri);
+				final File outputFile = ontologyFiles.get(inputIri);
+				if (streamDescriptions && (ontology instanceof Description || ontology instanceof DescriptionBundle)) {
+					if (stream(ontology, outputFile, ontologyManager, savedCount, unchangedCount)) {
+						return null;
+					}
+				}
+				LOGGER.info(("Converting: " + inputIri));
+				final OWLOntology owlOntology = new Oml2Owl(ontology.eResource(), owl2api, omlAnnotations).run();
+				if (owlOntology != null && !(ontology instanceof VocabularyBundle)) {
+					LOGGER.info(("Creating: " + outputFile));
+					save(saveExecutor, saver, exporter, owlOntology, outputFile, savedCount, unchangedCount);
+					return null;
+				}
+				return owlOntology;
+			});
+		
+			for (String inputIri : ontologies.keySet()) {
+				final Ontology ontology = ontologies.get(inputIri);
+				final OWLOntology owlOntology = owlOntologies.get(inputIri);
+				if (owlOntology != null) {
+					final File outputFile = ontologyFiles.get(inputIri);
+					LOGGER.info(("Creating: " + outputFile));
+					oml2owl.put(ontology.eResource(), owlOntology);
+					outputFiles.put(outputFile, owlOntology);
 				
-				// generate rule files
-				if (generateRules && ontology instanceof VocabularyBundle) {
-					final File ruleFile = new File(outputFolderPath+File.separator+relativePath+".rules");
-					rules.add(new Oml2Rules((VocabularyBundle)ontology, ruleFile).run());
+					// generate rule files
+					if (generateRules && ontology instanceof VocabularyBundle) {
+						var uri = URI.createURI(inputIri);
+						final File ruleFile = new File(outputFolderPath+File.separator+uri.authority()+uri.path()+".rules");
+						rules.add(new Oml2Rules((VocabularyBundle)ontology, importGraph.getImportedClosure(inputIri), ruleFile).withPool(pool).withSkipUnchanged(skipUnchanged).run());
+					}
 				}
 			}
-		}
 		
-		// run the vocabulary bundle closure algorithm
-		oml2owl.entrySet().stream().filter(e -> OmlRead.getOntology(e.getKey()) instanceof VocabularyBundle).forEach(entry -> {
-			LOGGER.info("Closing vocabulary bundle: "+entry.getKey().getURI());
-			new CloseVocabularyBundleToOwl((VocabularyBundle) OmlRead.getOntology(entry.getKey()), entry.getValue(), disjointUnions, owl2api).run();
-		});
+			// save the rule files
+			final AtomicInteger savedRulesCount = new AtomicInteger();
+			final AtomicInteger unchangedRulesCount = new AtomicInteger();
+			rules.forEach(r -> saveExecutor.submit(() -> (r.save() ? savedRulesCount : unchangedRulesCount).incrementAndGet()));
 		
-		// save the output OWL ontologies
-		System.out.println(outputFiles.size()+" owl file(s) are saved");
-		outputFiles.keySet().parallelStream().forEach(file -> {
-			var owlOntology = outputFiles.get(file);
-			LOGGER.info("Saving: "+file);
-			try {
-				OWLDocumentFormat format = FileExtensionValidator.extensions.get(outputFileExtension).getDeclaredConstructor().newInstance();
-				if (format instanceof PrefixDocumentFormat) {
-					format.asPrefixOWLDocumentFormat().copyPrefixesFrom(owlOntology.getFormat().asPrefixOWLDocumentFormat());
+			// run the vocabulary bundle closure algorithm (bundles are closed concurrently since each has its own Owl ontology,
+			// and the parallel steps of each closure run on the same bounded pool)
+			final ClosureCache closureCache = (closureCachePath != null) ? new ClosureCache(new File(closureCachePath), getAppVersion()) : null;
+			final List<Resource> bundles = oml2owl.keySet().stream().filter(r -> OmlRead.getOntology(r) instanceof VocabularyBundle).collect(Collectors.toList());
+			final Consumer<Resource> closeBundle = bundle -> {
+				LOGGER.info("Closing vocabulary bundle: "+bundle.getURI());
+				final String bundleIri = OmlRead.getOntology(bundle).getIri();
+				new CloseVocabularyBundleToOwl(importGraph.getImportScope(bundleIri), oml2owl.get(bundle), disjointUnions, owl2api)
+					.withCache(closureCache, bundleIri)
+					.withPool(pool)
+					.run();
+			};
+			if (pool == null) {
+				bundles.forEach(closeBundle);
+			} else {
+				try {
+					pool.submit(() -> bundles.parallelStream().forEach(closeBundle)).get();
+				} catch (ExecutionException e) {
+					throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
 				}
-	            file.getParentFile().mkdirs();
-	            try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
-	            	WriterDocumentTarget documentTarget = new WriterDocumentTarget(writer);
-	            	if (FileExtensionValidator.storers.get(outputFileExtension) != null) {
-						OWLStorer storer = FileExtensionValidator.storers.get(outputFileExtension).apply(owlOntology);
-						storer.storeOntology(owlOntology, documentTarget, format);
-					} else {
-		            	ontologyManager.saveOntology(owlOntology, format, documentTarget);
-					}
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
 			}
-		});
 		
-		// create the output OWL catalog
-		createOutputCatalog(outputCatalogFile, outputSchemes);
-				
-		// create rule files
-		if (generateRules) {
-			System.out.println(rules.size()+" rules file(s) are saved");
-		}
-		rules.parallelStream().forEach(r -> {
-			try {
-				r.save();
-			} catch (Exception e) {
-				e.printStackTrace();
+			// save the closed vocabulary bundles
+			outputFiles.forEach((file, owlOntology) -> save(saveExecutor, saver, exporter, owlOntology, file, savedCount, unchangedCount));
+		
+			// create the output OWL catalog
+			createOutputCatalog(outputCatalogFile, outputSchemes);
+		
+			// wait for the outputs to be saved
+			saveExecutor.await();
+			System.out.println(savedCount.get()+" owl file(s) are saved");
+			if (skipUnchanged) {
+				System.out.println(unchangedCount.get()+" owl file(s) are unchanged");
 			}
-		});
+			if (generateRules) {
+				System.out.println(savedRulesCount.get()+" rules file(s) are saved");
+				if (skipUnchanged) {
+					System.out.println(unchangedRulesCount.get()+" rules file(s) are unchanged");
+				}
+			}
+			if (exporter != null) {
+				exporter.close();
+				System.out.println(exporter.getGraphCount()+" ontologies are exported to "+Math.max(1, datasetShards)+" dataset shard(s)");
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+			saveExecutor.shutdownNow();
+			if (exporter != null) {
+				exporter.shutdownNow();
+			}
+		}
 		
 		LOGGER.info("=================================================================");
 		LOGGER.info("                          E N D");
 		LOGGER.info("=================================================================");
 	}
 
-	private URI resolveRootOntologyIri(String rootOntologyIri, URI catalogUri) throws IOException {
-		final URI resolved = OmlResolve.resolveOmlFileUri(catalogUri, rootOntologyIri);
+	/**
+	 * Converts the given ontology by streaming its triples directly to the given output file. The triples
+	 * are written to a temporary file that replaces the output file only when the whole ontology is streamed
+	 * (and, when skipping unchanged files, only when their contents differ).
+	 * 
+	 * @param ontology The Oml ontology to convert
+	 * @param outputFile The output file
+	 * @param ontologyManager The manager of the (empty) Owl ontology created for the conversion
+	 * @param savedCount The count of saved files
+	 * @param unchangedCount The count of unchanged files
+	 * @return true if the ontology is streamed, or false if it has axioms that cannot be streamed
+	 */
+	private boolean stream(Ontology ontology, File outputFile, OWLOntologyManager ontologyManager, AtomicInteger savedCount, AtomicInteger unchangedCount) {
+		LOGGER.info(("Streaming: " + outputFile));
+		outputFile.getParentFile().mkdirs();
+		File tempFile = null;
+		StreamingOwlApi streamingApi = null;
+		try {
+			tempFile = File.createTempFile(outputFile.getName(), ".tmp", outputFile.getParentFile());
+			try (OutputStream output = FileExtensionValidator.isCompressed(outputFileExtension) ?
+					new GZIPOutputStream(new FileOutputStream(tempFile), 64 * 1024) :
+					new FileOutputStream(tempFile);
+				 Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+				final RDFWriter rdfWriter = Rio.createWriter(StreamingOwlApi.getFormat(FileExtensionValidator.getFormatExtension(outputFileExtension)), writer);
+				rdfWriter.startRDF();
+				streamingApi = new StreamingOwlApi(ontologyManager, annotationsOnAxioms, rdfWriter);
+				new Oml2Owl(ontology.eResource(), streamingApi, omlAnnotations).run();
+				rdfWriter.endRDF();
+			}
+			if (!skipUnchanged) {
+				Files.move(tempFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				savedCount.incrementAndGet();
+			} else if (OntologySaver.replaceIfChanged(tempFile.toPath(), outputFile.toPath())) {
+				savedCount.incrementAndGet();
+			} else {
+				unchangedCount.incrementAndGet();
+			}
+			return true;
+		} catch (UnsupportedAxiomException e) {
+			LOGGER.warn("Converting "+outputFile+" in memory instead: "+e.getMessage());
+			return false;
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write "+outputFile, e);
+		} finally {
+			if (streamingApi != null && streamingApi.getOntology() != null) {
+				ontologyManager.removeOntology(streamingApi.getOntology());
+			}
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	private URI resolveOntologyIri(String ontologyIri, URI catalogUri) throws IOException {
+		final URI resolved = OmlResolve.resolveOmlFileUri(catalogUri, ontologyIri);
 		
 		if (resolved.isFile()) {
 			final String filename = resolved.toFileString();
@@ -384,6 +609,175 @@ public class Oml2OwlApp {
 		return resolved;
 	}
 
+	/**
+	 * Creates a resource set for Oml resources with a cross reference adapter
+	 * 
+	 * @param shared Whether the resource set is shared by threads (which use a synchronized cross reference adapter)
+	 * @return a new resource set
+	 */
+	private static ResourceSet createResourceSet(boolean shared) {
+		final ResourceSet resourceSet = new ResourceSetImpl();
+		resourceSet.eAdapters().add(shared ? new SynchronizedCrossReferenceAdapter() : new ECrossReferenceAdapter());
+		return resourceSet;
+	}
+
+	/**
+	 * Validates the given resources (in parallel when more than one thread is used). Parallel validation
+	 * reads the shared resources, which are already loaded and resolved, so each file is parsed once.
+	 * The Xtext cache adapters that validation would otherwise attach lazily are attached up front.
+	 * 
+	 * @param resources The resources to validate
+	 * @param cache The cache of validation results (can be null)
+	 * @return The validation problems (empty when there are none)
+	 * @throws Exception when validation fails unexpectedly
+	 */
+	private String validate(List<Resource> resources, ValidationCache cache) throws Exception {
+		final ValidationProblems problems = new ValidationProblems(maxProblems);
+		if (getThreadCount() <= 1) {
+			for (int i = 0; i < resources.size(); i++) {
+				problems.add(i, validate(resources.get(i), cache));
+				if (failFast && problems.exist()) {
+					break;
+				}
+			}
+			return problems.toString();
+		}
+		// attach the cache adapters on this thread since eAdapters is not thread-safe
+		for (Resource resource : resources) {
+			if (resource instanceof XtextResource && ((XtextResource) resource).getCache() instanceof OnChangeEvictingCache) {
+				((OnChangeEvictingCache) ((XtextResource) resource).getCache()).getOrCreate(resource);
+			}
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(getThreadCount());
+		try {
+			final CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+			final Map<Future<String>, Integer> indices = new HashMap<>();
+			for (int i = 0; i < resources.size(); i++) {
+				final Resource resource = resources.get(i);
+				indices.put(completionService.submit(() -> validate(resource, cache)), i);
+			}
+			// consume results as they complete so only the retained problems are kept in memory
+			for (int i = 0; i < resources.size(); i++) {
+				final Future<String> future = completionService.take();
+				try {
+					problems.add(indices.remove(future), future.get());
+				} catch (ExecutionException e) {
+					throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+				}
+				if (failFast && problems.exist()) {
+					break; // the outstanding validations are cancelled below
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return problems.toString();
+	}
+
+	private String validate(Resource resource, ValidationCache cache) {
+		if (cache != null && cache.isValid(resource)) {
+			LOGGER.info(("Skipping validation (unchanged): " + resource.getURI()));
+			return "";
+		}
+		LOGGER.info(("Validating: " + resource.getURI()));
+		final String results = OmlValidator.validate(resource);
+		if (cache != null && results.isEmpty()) {
+			cache.setValid(resource);
+		}
+		return results;
+	}
+
+	/**
+	 * Creates a loader that parses Oml resources in parallel and prefetches their imports
+	 * 
+	 * @param resourceSet The resource set to load the resources into
+	 * @param catalogUri The URI of the Oml catalog used to resolve imports
+	 * @return a new parallel Oml loader
+	 */
+	private ParallelOmlLoader createLoader(ResourceSet resourceSet, URI catalogUri) {
+		return new ParallelOmlLoader(resourceSet, getThreadCount(), iri -> {
+			try {
+				return resolveOntologyIri(iri, catalogUri);
+			} catch (IOException e) {
+				LOGGER.warn("Could not resolve import: "+iri, e);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Gets the number of threads to use for the parallel stages
+	 * 
+	 * @return the number of threads (1 means sequential)
+	 */
+	private int getThreadCount() {
+		return (threads > 0) ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	private int getSaveThreadCount() {
+		return (saveThreads > 0) ? saveThreads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Submits the saving (and the dataset export) of the given ontology to the given executor, and removes
+	 * the ontology from its manager once saved so the memory it holds can be reclaimed
+	 * 
+	 * @param saveExecutor The executor of the save tasks
+	 * @param saver The ontology saver
+	 * @param exporter The dataset exporter (or null when no dataset is exported)
+	 * @param owlOntology The ontology to save
+	 * @param file The output file
+	 * @param savedCount The counter of saved ontologies
+	 * @param unchangedCount The counter of ontologies whose files are unchanged
+	 */
+	private void save(SaveExecutor saveExecutor, OntologySaver saver, DatasetExporter exporter, OWLOntology owlOntology, File file, AtomicInteger savedCount, AtomicInteger unchangedCount) {
+		saveExecutor.submit(() -> {
+			LOGGER.info("Saving: "+file);
+			if (saver.save(owlOntology, file)) {
+				savedCount.incrementAndGet();
+			} else {
+				LOGGER.info("Unchanged: "+file);
+				unchangedCount.incrementAndGet();
+			}
+			if (exporter != null) {
+				exporter.export(owlOntology);
+			}
+			owlOntology.getOWLOntologyManager().removeOntology(owlOntology);
+		});
+	}
+
+	/**
+	 * Applies the given function on each of the given inputs using a bounded thread pool
+	 * 
+	 * @param inputs The inputs to process
+	 * @param function The function to apply on each input
+	 * @return A map from each input to its result, in the same order as the inputs
+	 * @throws Exception when the function fails on any of the inputs
+	 */
+	private <T, R> Map<T, R> runInParallel(Collection<T> inputs, Function<T, R> function) throws Exception {
+		final Map<T, R> results = new LinkedHashMap<>();
+		final int threadCount = getThreadCount();
+		if (threadCount <= 1 || inputs.size() <= 1) {
+			inputs.forEach(i -> results.put(i, function.apply(i)));
+			return results;
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			final Map<T, Future<R>> futures = new LinkedHashMap<>();
+			inputs.forEach(i -> futures.put(i, executor.submit(() -> function.apply(i))));
+			for (var entry : futures.entrySet()) {
+				try {
+					results.put(entry.getKey(), entry.getValue().get());
+				} catch (ExecutionException e) {
+					throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
 	/**
 	 * Collects Oml files referenced by the given Oml catalog
 	 * 
@@ -420,6 +814,49 @@ public class Oml2OwlApp {
     	return (version != null) ? version : "<SNAPSHOT>";
 	}
 
+	/**
+	 * A bounded buffer of validation problems ordered by the index of their resource 
+	 */
+	private static class ValidationProblems {
+		private final int maxProblems;
+		private final Map<Integer, String> results = new TreeMap<>();
+		private int keptCount = 0;
+		private int totalCount = 0;
+
+		public ValidationProblems(int maxProblems) {
+			this.maxProblems = maxProblems;
+		}
+
+		public void add(int index, String result) {
+			if (result.isEmpty()) {
+				return;
+			}
+			final String[] lines = result.split("\\R");
+			totalCount += lines.length;
+			int count = lines.length;
+			if (maxProblems > 0) {
+				count = Math.min(count, maxProblems - keptCount);
+			}
+			if (count > 0) {
+				results.put(index, (count == lines.length) ? result : String.join("\n", Arrays.copyOf(lines, count)));
+				keptCount += count;
+			}
+		}
+
+		public boolean exist() {
+			return totalCount > 0;
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder problems = new StringBuilder(String.join("\n\n", results.values()));
+			if (totalCount > keptCount) {
+				problems.append("\n\n... "+(totalCount - keptCount)+" more problem(s) not shown");
+			}
+			return problems.toString();
+		}
+	}
+
 	/**
 	 * The validator of the input catalog path 
 	 */
@@ -469,13 +906,26 @@ public class Oml2OwlApp {
 		}
 		@Override
 		public void validate(final String name, final String value) throws ParameterException {
-			if (!extensions.containsKey(value)) {
-				throw new ParameterException((("Parameter " + name) + " should be a valid OWL file extension: " +
+			if (!extensions.containsKey(getFormatExtension(value))) {
+				throw new ParameterException((("Parameter " + name) + " should be a valid OWL file extension (optionally followed by ."+GZIP_EXTENSION+"): " +
 						extensions.keySet().stream().reduce( (x,y) -> x + " " + y) ));
 			}
 		}
 
-		private static Map<String, Class<? extends OWLDocumentFormat>> extensions = new HashMap<>();
+		/**
+		 * The extension appended to the extension of gzip compressed output files (e.g., ttl.gz)
+		 */
+		static final String GZIP_EXTENSION = "gz";
+
+		static boolean isCompressed(String fileExtension) {
+			return fileExtension.endsWith("."+GZIP_EXTENSION);
+		}
+
+		static String getFormatExtension(String fileExtension) {
+			return isCompressed(fileExtension) ? fileExtension.substring(0, fileExtension.length()-GZIP_EXTENSION.length()-1) : fileExtension;
+		}
+
+		static Map<String, Class<? extends OWLDocumentFormat>> extensions = new HashMap<>();
 
 		static {
 			extensions.put("fss", FunctionalSyntaxDocumentFormat.class);
@@ -492,15 +942,17 @@ public class Oml2OwlApp {
 			extensions.put("trig", TrigDocumentFormat.class);
 			extensions.put("trix", TrixDocumentFormat.class);
 			extensions.put("nq", NQuadsDocumentFormat.class);
+			// binary formats
+			extensions.put("brf", BinaryRDFDocumentFormat.class);
 		}
 
 		// Workaround.
 		// See https://github.com/owlcs/owlapi/issues/1002
 		// See https://github.com/owlcs/owlapi/pull/1003
 
-		private static Map<String, Function<OWLOntology,OWLStorer>> storers = new HashMap<>();
+		static Map<String, Supplier<OWLDocumentFormatFactory>> quadFormatFactories = new HashMap<>();
 
-		private static OWLStorer createQuadOntologyStorer(OWLDocumentFormatFactory factory, OWLOntology owlOntology) {
+		static OWLStorer createQuadOntologyStorer(OWLDocumentFormatFactory factory, OWLOntology owlOntology) {
 			return owlOntology
 					.getOntologyID()
 					.getOntologyIRI()
@@ -510,10 +962,10 @@ public class Oml2OwlApp {
 
 		static {
 			// quad formats
-			storers.put("jsonld", owlOntology -> createQuadOntologyStorer(new RDFJsonLDDocumentFormatFactory(), owlOntology));
-			storers.put("trig", owlOntology -> createQuadOntologyStorer(new TrigDocumentFormatFactory(), owlOntology));
-			storers.put("trix", owlOntology -> createQuadOntologyStorer(new TrixDocumentFormatFactory(), owlOntology));
-			storers.put("nq", owlOntology -> createQuadOntologyStorer(new NQuadsDocumentFormatFactory(), owlOntology));
+			quadFormatFactories.put("jsonld", RDFJsonLDDocumentFormatFactory::new);
+			quadFormatFactories.put("trig", TrigDocumentFormatFactory::new);
+			quadFormatFactories.put("trix", TrixDocumentFormatFactory::new);
+			quadFormatFactories.put("nq", NQuadsDocumentFormatFactory::new);
 		}
 	}
 	
@@ -20,18 +20,30 @@ package io.opencaesar.oml2owl;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import io.opencaesar.oml.Argument;
 import io.opencaesar.oml.BuiltInPredicate;
 import io.opencaesar.oml.DifferentFromPredicate;
 import io.opencaesar.oml.Member;
+import io.opencaesar.oml.Ontology;
 import io.opencaesar.oml.Predicate;
 import io.opencaesar.oml.PropertyPredicate;
 import io.opencaesar.oml.RelationEntityPredicate;
@@ -52,9 +64,12 @@ public class Oml2Rules {
 	private static final String targetRelation = "oml:hasTarget";
 
 	private VocabularyBundle bundle;
+	private Collection<Ontology> importClosure;
 	private File rulesFile;
 	private Map<String, String> prefixes;
-	private StringBuilder ruleBuilder;
+	private List<List<Rule>> rules;
+	private ForkJoinPool pool;
+	private boolean skipUnchanged;
 
 	/**
 	 * Constructs a new instance
@@ -63,55 +78,134 @@ public class Oml2Rules {
 	 * @param rulesFile The rules file
 	 */
 	public Oml2Rules(VocabularyBundle bundle, File rulesFile) {
+		this(bundle, null, rulesFile);
+	}
+	
+	/**
+	 * Constructs a new instance
+	 *  
+	 * @param bundle The vocabulary bundle
+	 * @param importClosure The (precomputed) import closure of the bundle, or null to compute it
+	 * @param rulesFile The rules file
+	 */
+	public Oml2Rules(VocabularyBundle bundle, Collection<Ontology> importClosure, File rulesFile) {
 		this.bundle = bundle;
+		this.importClosure = importClosure;
 		this.rulesFile = rulesFile;
-		this.ruleBuilder = new StringBuilder();
-		this.prefixes = new LinkedHashMap<>();
-		addDefaultRules();
+		this.prefixes = Collections.emptyMap();
+		this.rules = new ArrayList<>();
+	}
+	
+	/**
+	 * Sets the pool used to process the rules of different vocabularies in parallel (the output is the
+	 * same as without a pool)
+	 * 
+	 * @param pool The pool (or null to process the rules sequentially)
+	 * @return Oml2Rules
+	 */
+	public Oml2Rules withPool(ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+	
+	/**
+	 * Sets whether to leave the rules file untouched when its content has not changed
+	 * 
+	 * @param skipUnchanged Whether to skip an unchanged file
+	 * @return Oml2Rules
+	 */
+	public Oml2Rules withSkipUnchanged(boolean skipUnchanged) {
+		this.skipUnchanged = skipUnchanged;
+		return this;
 	}
 	
 	/**
-	 * Runs the converter
+	 * Runs the converter (collects the rules and their prefixes, the rules are translated when saved)
 	 * 
 	 * @return Oml2Rules
 	 */
 	public Oml2Rules run() {
-		var rules = OmlRead.getImportedOntologyClosure(bundle, false).stream()
+		var closure = (importClosure != null) ? importClosure : OmlRead.getImportedOntologyClosure(bundle, false);
+		rules = closure.stream()
 			.filter(o -> o instanceof Vocabulary)
 			.map(o -> (Vocabulary)o)
-			.flatMap(v -> v.getOwnedStatements().stream())
-			.filter(s -> s instanceof Rule)
-			.map(s -> (Rule) s)
+			.map(v -> v.getOwnedStatements().stream()
+				.filter(s -> s instanceof Rule)
+				.map(s -> (Rule) s)
+				.collect(Collectors.toList()))
+			.filter(r -> !r.isEmpty())
 			.collect(Collectors.toList());
-		for (Rule rule : rules) {
-			add(rule);
-		}
+		// first pass: collect the prefixes since they are written before the rules (each vocabulary 
+		// has its own prefix map, and the maps are merged in vocabulary order to keep the prefix order)
+		final List<Map<String, String>> vocabularyPrefixes = process(rules, vocabularyRules -> {
+			final Map<String, String> map = new LinkedHashMap<>();
+			vocabularyRules.forEach(rule -> collectPrefixes(rule, map));
+			return map;
+		});
+		final Map<String, String> allPrefixes = new LinkedHashMap<>();
+		allPrefixes.put("oml", "http://opencaesar.io/oml#");
+		vocabularyPrefixes.forEach(map -> map.forEach((prefix, namespace) -> allPrefixes.putIfAbsent(prefix, namespace)));
+		// the prefixes are read-only from now on (rules are translated concurrently)
+		prefixes = Collections.unmodifiableMap(allPrefixes);
 		return this;
 	}
 
 	/**
-	 * Saves the files
+	 * Saves the files (the rules are translated and streamed to the file one at a time). When skipping
+	 * an unchanged file, the rules are written to a temporary file that only replaces the existing one
+	 * when their contents differ.
 	 * 
+	 * @return true if the file was written, or false if it was unchanged
 	 * @throws IOException If an IO issue exists
 	 */
-	public void save() throws IOException {
-		BufferedWriter writer = null;
+	public boolean save() throws IOException {
+		rulesFile.getParentFile().mkdirs();
+		if (!skipUnchanged || !rulesFile.isFile()) {
+			write(rulesFile.toPath());
+			return true;
+		}
+		final Path tempFile = Files.createTempFile(rulesFile.getParentFile().toPath(), rulesFile.getName(), ".tmp");
 		try {
-		    writer = new BufferedWriter(new FileWriter(rulesFile));
+			write(tempFile);
+			return OntologySaver.replaceIfChanged(tempFile, rulesFile.toPath());
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private void write(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			 BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024)) {
 		    for (var prefix : prefixes.entrySet()) {
 		    	writer.append("@prefix "+prefix.getKey()+": "+prefix.getValue());
 		    	writer.newLine();
 		    }
 	    	writer.newLine();
-		    writer.append(ruleBuilder);
-		} finally {
-		    if (writer != null) {
-		    	writer.close();
-		    }
+	    	writeDefaultRules(writer);
+	    	// second pass: translate the rules (a window of vocabularies at a time, written in vocabulary order)
+	    	final int window = (pool != null) ? pool.getParallelism() : 1;
+	    	for (int i = 0; i < rules.size(); i += window) {
+	    		final List<String> texts = process(rules.subList(i, Math.min(i + window, rules.size())), vocabularyRules -> {
+	    			final StringBuilder text = new StringBuilder();
+	    			vocabularyRules.forEach(rule -> text.append(newLine).append(newLine).append(translate(rule)));
+	    			return text.toString();
+	    		});
+	    		for (String text : texts) {
+	    			writer.append(text);
+	    		}
+	    	}
 		}
 	}
 
-	private void add(Rule rule) {
+	private <T> List<T> process(List<List<Rule>> rulesByVocabulary, Function<List<Rule>, T> function) {
+		if (pool == null || rulesByVocabulary.size() <= 1) {
+			return rulesByVocabulary.stream().map(function).collect(Collectors.toList());
+		}
+		// the results are collected in the order of the vocabularies
+		return pool.invoke(ForkJoinTask.adapt(() -> rulesByVocabulary.parallelStream().map(function).collect(Collectors.toList())));
+	}
+
+	private String translate(Rule rule) {
 		List<String> antecedents = new ArrayList<>();
 		for (Predicate p : rule.getAntecedent()) {
 			antecedents.add(addPredicate(p));
@@ -120,20 +214,57 @@ public class Oml2Rules {
 		for (Predicate p : rule.getConsequent()) {
 			consequents.add(addPredicate(p));
 		}
-		ruleBuilder
-		.append(newLine)
-		.append(newLine)
-		.append("["+rule.getName()+": ")
-		.append(String.join(", ", antecedents))
-		.append(" -> ")
-		.append(String.join(", ", consequents))
-		.append("]");
+		return "["+rule.getName()+": "+String.join(", ", antecedents)+" -> "+String.join(", ", consequents)+"]";
+	}
+
+	private void collectPrefixes(Rule rule, Map<String, String> prefixes) {
+		// visits the members in the same order as addPredicate, so prefixes are ordered the same way
+		for (Predicate p : rule.getAntecedent()) {
+			collectPrefixes(p, prefixes);
+		}
+		for (Predicate p : rule.getConsequent()) {
+			collectPrefixes(p, prefixes);
+		}
+	}
+
+	private void collectPrefixes(Predicate p, Map<String, String> prefixes) {
+		if (p instanceof TypePredicate) {
+			TypePredicate pp = (TypePredicate)p;
+			collectPrefixes(pp.getArgument(), prefixes);
+			addPrefix(pp.getType(), prefixes);
+		} else if (p instanceof PropertyPredicate) {
+			PropertyPredicate pp = (PropertyPredicate)p;
+			collectPrefixes(pp.getArgument1(), prefixes);
+			addPrefix(pp.getProperty(), prefixes);
+			collectPrefixes(pp.getArgument2(), prefixes);
+		} else if (p instanceof RelationEntityPredicate) {
+			RelationEntityPredicate pp = (RelationEntityPredicate)p;
+			collectPrefixes(pp.getArgument(), prefixes);
+			addPrefix(pp.getType(), prefixes);
+			collectPrefixes(pp.getArgument1(), prefixes);
+			collectPrefixes(pp.getArgument2(), prefixes);
+		} else if (p instanceof DifferentFromPredicate) {
+			DifferentFromPredicate pp = (DifferentFromPredicate)p;
+			collectPrefixes(pp.getArgument1(), prefixes);
+			collectPrefixes(pp.getArgument2(), prefixes);
+		} else if (p instanceof SameAsPredicate) {
+			SameAsPredicate pp = (SameAsPredicate)p;
+			collectPrefixes(pp.getArgument1(), prefixes);
+			collectPrefixes(pp.getArgument2(), prefixes);
+		} else if (p instanceof BuiltInPredicate) {
+			BuiltInPredicate pp = (BuiltInPredicate)p;
+			pp.getArguments().forEach(a -> collectPrefixes(a, prefixes));
+		}
+	}
+
+	private void collectPrefixes(Argument a, Map<String, String> prefixes) {
+		if (a.getInstance() != null) {
+			addPrefix(a.getInstance(), prefixes);
+		}
 	}
 		
-	private void addDefaultRules() {
-		prefixes.put("oml", "http://opencaesar.io/oml#");
-		
-		ruleBuilder
+	private void writeDefaultRules(Writer writer) throws IOException {
+		writer
 			.append("# Default Rules:")
 			.append(newLine)
 			.append(newLine)
@@ -218,10 +349,14 @@ public class Oml2Rules {
 	}
 	
 	private String addIri(Member m) {
+		// only formats the iri (the prefix is collected by the first pass, so translating rules is read-only)
+		return m.getAbbreviatedIri();
+	}
+
+	private void addPrefix(Member m, Map<String, String> prefixes) {
 		if (!prefixes.containsKey(m.getOntology().getPrefix())) {
 			prefixes.put(m.getOntology().getPrefix(), m.getOntology().getNamespace());
 		}
-		return m.getAbbreviatedIri();
 	}
 	
 }
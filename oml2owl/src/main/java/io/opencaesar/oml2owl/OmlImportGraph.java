@@ -0,0 +1,211 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+
+import io.opencaesar.oml.DescriptionBundle;
+import io.opencaesar.oml.Import;
+import io.opencaesar.oml.Ontology;
+import io.opencaesar.oml.VocabularyBundle;
+import io.opencaesar.oml.util.OmlRead;
+
+/**
+ * A graph of the imports between the Oml ontologies of a resource set, indexed in both directions.
+ * The import closures and the dependents of ontologies are memoized, so the graph is meant to be
+ * built once per run and shared by all the steps that query it (it is safe to query concurrently).
+ */
+class OmlImportGraph {
+
+	private final Map<String, Ontology> ontologies = new HashMap<>();
+	private final Map<String, Set<String>> imports = new HashMap<>();
+	private final Map<String, Set<String>> importers = new HashMap<>();
+	private final Map<String, Set<Ontology>> closures = new ConcurrentHashMap<>();
+	private final Map<String, Set<Resource>> scopes = new ConcurrentHashMap<>();
+	private final Map<String, Set<String>> dependents = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new OmlImportGraph object
+	 *
+	 * @param resourceSet The resource set with the Oml ontologies
+	 */
+	public OmlImportGraph(ResourceSet resourceSet) {
+		for (Resource resource : resourceSet.getResources()) {
+			final Ontology ontology = OmlRead.getOntology(resource);
+			if (ontology != null) {
+				ontologies.put(ontology.getIri(), ontology);
+			}
+		}
+		for (Ontology ontology : ontologies.values()) {
+			final List<String> importedIris = new ArrayList<>();
+			for (Import import_ : ontology.getOwnedImports()) {
+				importedIris.add(import_.getIri());
+			}
+			addImports(ontology.getIri(), importedIris);
+		}
+	}
+
+	/**
+	 * Creates a new OmlImportGraph object from the imports of ontologies given by their IRIs (the graph
+	 * has no Oml ontologies, so only its IRI queries can be used)
+	 *
+	 * @param imports The IRIs of the ontologies directly imported by each ontology IRI
+	 */
+	OmlImportGraph(Map<String, ? extends Collection<String>> imports) {
+		imports.forEach((iri, importedIris) -> addImports(iri, importedIris));
+	}
+
+	private void addImports(String iri, Collection<String> importedIris) {
+		final Set<String> iris = imports.computeIfAbsent(iri, i -> new LinkedHashSet<>());
+		for (String importedIri : importedIris) {
+			iris.add(importedIri);
+			importers.computeIfAbsent(importedIri, i -> new LinkedHashSet<>()).add(iri);
+		}
+	}
+
+	/**
+	 * Gets the IRIs of the ontologies directly imported by the ontology with the given IRI
+	 *
+	 * @param iri The IRI of the ontology
+	 * @return The IRIs of the imported ontologies
+	 */
+	public Set<String> getImports(String iri) {
+		return imports.getOrDefault(iri, Collections.emptySet());
+	}
+
+	/**
+	 * Gets the IRIs of the ontologies that directly import the ontology with the given IRI
+	 *
+	 * @param iri The IRI of the ontology
+	 * @return The IRIs of the importing ontologies
+	 */
+	public Set<String> getImporters(String iri) {
+		return importers.getOrDefault(iri, Collections.emptySet());
+	}
+
+	/**
+	 * Gets the ontologies imported (transitively) by the ontology with the given IRI. This is equivalent to
+	 * OmlRead.getImportedOntologyClosure(ontology, false) including the order of the ontologies.
+	 *
+	 * @param iri The IRI of the ontology
+	 * @return The imported ontologies (excluding the ontology itself)
+	 */
+	public Set<Ontology> getImportedClosure(String iri) {
+		return closures.computeIfAbsent(iri, i -> {
+			final Set<Ontology> closure = new LinkedHashSet<>();
+			getImportedClosureIris(i).forEach(v -> closure.add(ontologies.get(v)));
+			return Collections.unmodifiableSet(closure);
+		});
+	}
+
+	/**
+	 * Gets the IRIs of the ontologies imported (transitively) by the ontology with the given IRI, in the
+	 * order of getImportedClosure(iri)
+	 *
+	 * @param iri The IRI of the ontology
+	 * @return The IRIs of the imported ontologies (excluding the ontology itself)
+	 */
+	Set<String> getImportedClosureIris(String iri) {
+		// iterative preorder depth-first traversal (same order as a recursive one)
+		final Set<String> visited = new LinkedHashSet<>();
+		final Deque<String> stack = new ArrayDeque<>();
+		stack.push(iri);
+		while (!stack.isEmpty()) {
+			final String next = stack.pop();
+			if (imports.containsKey(next) && visited.add(next)) {
+				final List<String> importedIris = new ArrayList<>(getImports(next));
+				Collections.reverse(importedIris);
+				importedIris.forEach(stack::push);
+			}
+		}
+		visited.remove(iri);
+		return visited;
+	}
+
+	/**
+	 * Gets the import scope of the ontology with the given IRI. This is equivalent to OmlRead.getImportScope(ontology).
+	 *
+	 * @param iri The IRI of the ontology
+	 * @return The resources of the ontology and of its imported ontologies
+	 */
+	public Set<Resource> getImportScope(String iri) {
+		return scopes.computeIfAbsent(iri, i -> {
+			final Set<Resource> scope = new LinkedHashSet<>();
+			if (ontologies.containsKey(i)) {
+				scope.add(ontologies.get(i).eResource());
+			}
+			getImportedClosure(i).forEach(o -> scope.add(o.eResource()));
+			return Collections.unmodifiableSet(scope);
+		});
+	}
+
+	/**
+	 * Gets the IRIs of the ontologies that import (transitively) the ontology with the given IRI
+	 *
+	 * @param iri The IRI of the ontology
+	 * @return The IRIs of the dependent ontologies (excluding the ontology itself)
+	 */
+	public Set<String> getDependents(String iri) {
+		return dependents.computeIfAbsent(iri, i -> {
+			final Set<String> visited = new LinkedHashSet<>();
+			final Deque<String> queue = new ArrayDeque<>(getImporters(i));
+			while (!queue.isEmpty()) {
+				final String next = queue.poll();
+				if (visited.add(next)) {
+					queue.addAll(getImporters(next));
+				}
+			}
+			visited.remove(i);
+			return Collections.unmodifiableSet(visited);
+		});
+	}
+
+	/**
+	 * Gets the IRIs of the ontologies that need to be converted again when the given ontologies change.
+	 * Those are the changed ontologies themselves and the bundles that import any of them (transitively).
+	 *
+	 * @param changedIris The IRIs of the changed ontologies
+	 * @return The IRIs of the impacted ontologies
+	 */
+	public Set<String> getImpacted(Collection<String> changedIris) {
+		final Set<String> impacted = new LinkedHashSet<>(changedIris);
+		for (String changedIri : changedIris) {
+			for (String dependent : getDependents(changedIri)) {
+				final Ontology ontology = ontologies.get(dependent);
+				if (ontology instanceof VocabularyBundle || ontology instanceof DescriptionBundle) {
+					impacted.add(dependent);
+				}
+			}
+		}
+		return impacted;
+	}
+}
@@ -0,0 +1,247 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.semanticweb.owlapi.io.StreamDocumentTarget;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+import org.semanticweb.owlapi.model.OWLDocumentFormatFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.PrefixManager;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import io.opencaesar.oml2owl.Oml2OwlApp.FileExtensionValidator;
+
+/**
+ * Saves Owl ontologies to files with a given extension. The document format (and the format factory of quad
+ * formats) is created once per thread and reused for every file, and files are written to a file channel
+ * through a direct byte buffer that is also reused (and compressed on the way for a gzip extension). Optionally, a file whose new content is identical to
+ * its existing content is left untouched (so its timestamp does not change).
+ */
+class OntologySaver {
+
+	private static final int BUFFER_SIZE = 1024 * 1024;
+
+	private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
+	private static final PrefixManager DEFAULT_PREFIXES = new DefaultPrefixManager();
+
+	private final OWLOntologyManager manager;
+	private final ThreadLocal<OWLDocumentFormat> formats;
+	private final ThreadLocal<OWLDocumentFormatFactory> quadFormatFactories;
+	private final boolean compressed;
+	private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+	private boolean skipUnchanged;
+
+	/**
+	 * Creates a new OntologySaver object
+	 *
+	 * @param manager The manager of the ontologies
+	 * @param fileExtension The extension of the output files
+	 */
+	public OntologySaver(OWLOntologyManager manager, String fileExtension) {
+		this.manager = manager;
+		this.compressed = FileExtensionValidator.isCompressed(fileExtension);
+		final String formatExtension = FileExtensionValidator.getFormatExtension(fileExtension);
+		final Class<? extends OWLDocumentFormat> formatClass = FileExtensionValidator.extensions.get(formatExtension);
+		this.formats = ThreadLocal.withInitial(() -> {
+			try {
+				return formatClass.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		final Supplier<OWLDocumentFormatFactory> quadFormatFactory = FileExtensionValidator.quadFormatFactories.get(formatExtension);
+		this.quadFormatFactories = (quadFormatFactory != null) ? ThreadLocal.withInitial(quadFormatFactory) : null;
+	}
+
+	/**
+	 * Sets whether to skip replacing output files whose content has not changed
+	 *
+	 * @param skipUnchanged Whether to skip unchanged files
+	 * @return this saver
+	 */
+	public OntologySaver withSkipUnchanged(boolean skipUnchanged) {
+		this.skipUnchanged = skipUnchanged;
+		return this;
+	}
+
+	/**
+	 * Saves the given ontology to the given file. When skipping unchanged files, the ontology is written
+	 * to a temporary file (hashing its content on the way), which only replaces the existing file when
+	 * their contents differ.
+	 *
+	 * @param ontology The ontology to save
+	 * @param file The output file
+	 * @return true if the file was written, or false if it was unchanged
+	 * @throws Exception when the ontology cannot be saved
+	 */
+	public boolean save(OWLOntology ontology, File file) throws Exception {
+		final OWLDocumentFormat format = formats.get();
+		if (format.isPrefixOWLDocumentFormat()) {
+			// reset the prefixes of the reused format to those of a new format, then add the ontology's
+			format.asPrefixOWLDocumentFormat().clear();
+			format.asPrefixOWLDocumentFormat().copyPrefixesFrom(DEFAULT_PREFIXES);
+			format.asPrefixOWLDocumentFormat().copyPrefixesFrom(ontology.getFormat().asPrefixOWLDocumentFormat());
+		}
+		file.getParentFile().mkdirs();
+		if (!skipUnchanged || !file.isFile()) {
+			write(ontology, format, file.toPath(), null);
+			return true;
+		}
+		final MessageDigest digest = createDigest();
+		final Path tempFile = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+		try {
+			write(ontology, format, tempFile, digest);
+			if (Files.size(tempFile) == file.length() && Arrays.equals(digest.digest(), hash(file.toPath()))) {
+				return false;
+			}
+			Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Replaces the given file with the given temporary file unless their contents are identical (used for
+	 * the output files that are not written by this saver, i.e., streamed ontologies and rules files)
+	 *
+	 * @param tempFile The temporary file (left in place when the file is unchanged)
+	 * @param file The file to replace
+	 * @return true if the file was replaced, or false if it was unchanged
+	 * @throws IOException when the files cannot be compared or moved
+	 */
+	static boolean replaceIfChanged(Path tempFile, Path file) throws IOException {
+		if (Files.isRegularFile(file) && Files.size(tempFile) == Files.size(file) && Files.mismatch(tempFile, file) == -1) {
+			return false;
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+		return true;
+	}
+
+	private void write(OWLOntology ontology, OWLDocumentFormat format, Path path, MessageDigest digest) throws Exception {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			 OutputStream output = compressed ?
+					 new GZIPOutputStream(new ChannelOutputStream(channel, buffers.get(), digest), COMPRESSION_BUFFER_SIZE) :
+					 new ChannelOutputStream(channel, buffers.get(), digest)) {
+			final StreamDocumentTarget documentTarget = new StreamDocumentTarget(output);
+			if (quadFormatFactories != null) {
+				FileExtensionValidator.createQuadOntologyStorer(quadFormatFactories.get(), ontology).storeOntology(ontology, documentTarget, format);
+			} else {
+				manager.saveOntology(ontology, format, documentTarget);
+			}
+		}
+	}
+
+	private byte[] hash(Path path) throws IOException {
+		final MessageDigest digest = createDigest();
+		final ByteBuffer buffer = buffers.get();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer.clear();
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		}
+		return digest.digest();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * An output stream that writes to a file channel through a byte buffer (and optionally hashes what it writes)
+	 */
+	private static class ChannelOutputStream extends OutputStream {
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+		private final MessageDigest digest;
+
+		public ChannelOutputStream(FileChannel channel, ByteBuffer buffer, MessageDigest digest) {
+			this.channel = channel;
+			this.buffer = buffer;
+			this.digest = digest;
+			buffer.clear();
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (!buffer.hasRemaining()) {
+				drain();
+			}
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (!buffer.hasRemaining()) {
+					drain();
+				}
+				final int count = Math.min(len, buffer.remaining());
+				buffer.put(b, off, count);
+				off += count;
+				len -= count;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			drain();
+		}
+
+		@Override
+		public void close() throws IOException {
+			drain();
+		}
+
+		private void drain() throws IOException {
+			buffer.flip();
+			if (digest != null) {
+				digest.update(buffer.duplicate());
+			}
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+}
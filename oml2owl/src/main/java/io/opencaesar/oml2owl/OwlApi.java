@@ -22,7 +22,11 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.semanticweb.owlapi.model.AddImport;
 import org.semanticweb.owlapi.model.AddOntologyAnnotation;
@@ -33,6 +37,7 @@ import org.semanticweb.owlapi.model.OWLAnnotationProperty;
 import org.semanticweb.owlapi.model.OWLAnnotationValue;
 import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
 import org.semanticweb.owlapi.model.OWLAsymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
@@ -111,9 +116,34 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 
 	protected final boolean annotationsOnAxioms;
 
+	// when buffered, axioms are kept per ontology and added in one change by flush()
+	protected final boolean buffered;
+
+	private final Map<OWLOntology, Set<OWLAxiom>> buffers = new ConcurrentHashMap<>();
+
 	public OwlApi(final OWLOntologyManager manager, final boolean annotationsOnAxioms) {
+		this(manager, annotationsOnAxioms, false);
+	}
+
+	public OwlApi(final OWLOntologyManager manager, final boolean annotationsOnAxioms, final boolean buffered) {
 		super(manager);
 		this.annotationsOnAxioms = annotationsOnAxioms;
+		this.buffered = buffered;
+	}
+
+	protected void add(final OWLOntology ontology, final OWLAxiom axiom) {
+		if (buffered) {
+			buffers.computeIfAbsent(ontology, o -> new LinkedHashSet<>()).add(axiom);
+		} else {
+			manager.addAxiom(ontology, axiom);
+		}
+	}
+
+	public void flush(final OWLOntology ontology) {
+		final Set<OWLAxiom> axioms = buffers.remove(ontology);
+		if (axioms != null && !axioms.isEmpty()) {
+			manager.addAxioms(ontology, axioms);
+		}
 	}
 
 	public IRI createIri(final String iri) {
@@ -142,14 +172,14 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 	public OWLClass addClass(final OWLOntology ontology, final String iri) {
 		final OWLClass class_ = factory.getOWLClass(iri);
 		final OWLDeclarationAxiom axiom = factory.getOWLDeclarationAxiom(class_);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return class_;
 	}
 
 	public OWLDatatype addDatatype(final OWLOntology ontology, final String iri) {
 		final OWLDatatype datatype = factory.getOWLDatatype(iri);
 		final OWLDeclarationAxiom axiom = factory.getOWLDeclarationAxiom(datatype);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return datatype;
 	}
 
@@ -158,7 +188,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLDatatype restrictedDatatype = factory.getOWLDatatype(restrictedIri);
 		final OWLDatatypeRestriction restriction = factory.getOWLDatatypeRestriction(restrictedDatatype, restrictions);
 		final OWLDatatypeDefinitionAxiom axiom = factory.getOWLDatatypeDefinitionAxiom(datatype, restriction, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -166,7 +196,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLDatatype datatype = factory.getOWLDatatype(datatypeIri);
 		final OWLDatatype synonymDatatype = factory.getOWLDatatype(synonymIri);
 		final OWLDatatypeDefinitionAxiom axiom = factory.getOWLDatatypeDefinitionAxiom(datatype, synonymDatatype, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -174,7 +204,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLDatatype datatype = factory.getOWLDatatype(datatypeIri);
 		final OWLDataOneOf dataOneOf = factory.getOWLDataOneOf(literals);
 		final OWLDatatypeDefinitionAxiom axiom = factory.getOWLDatatypeDefinitionAxiom(datatype, dataOneOf);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return dataOneOf;
 	}
 
@@ -182,91 +212,91 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLClass class_ = factory.getOWLClass(classIri);
 		final OWLObjectOneOf objectOneOf = factory.getOWLObjectOneOf(individuals);
 		final OWLEquivalentClassesAxiom axiom = factory.getOWLEquivalentClassesAxiom(class_, objectOneOf);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return objectOneOf;
 	}
 
 	public OWLObjectProperty addObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLDeclarationAxiom axiom = factory.getOWLDeclarationAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLObjectProperty addFunctionalObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLFunctionalObjectPropertyAxiom axiom = factory.getOWLFunctionalObjectPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLObjectProperty addInverseFunctionalObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLInverseFunctionalObjectPropertyAxiom axiom = factory.getOWLInverseFunctionalObjectPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLObjectProperty addSymmetricObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLSymmetricObjectPropertyAxiom axiom = factory.getOWLSymmetricObjectPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLObjectProperty addAsymmetricObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLAsymmetricObjectPropertyAxiom axiom = factory.getOWLAsymmetricObjectPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLObjectProperty addReflexiveObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLReflexiveObjectPropertyAxiom axiom = factory.getOWLReflexiveObjectPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLObjectProperty addIrreflexiveObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLIrreflexiveObjectPropertyAxiom axiom = factory.getOWLIrreflexiveObjectPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLObjectProperty addTransitiveObjectProperty(final OWLOntology ontology, final String iri) {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(iri);
 		final OWLTransitiveObjectPropertyAxiom axiom = factory.getOWLTransitiveObjectPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLDataProperty addDataProperty(final OWLOntology ontology, final String iri) {
 		final OWLDataProperty property = factory.getOWLDataProperty(iri);
 		final OWLDeclarationAxiom axiom = factory.getOWLDeclarationAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLDataProperty addFunctionalDataProperty(final OWLOntology ontology, final String iri) {
 		final OWLDataProperty property = factory.getOWLDataProperty(iri);
 		final OWLFunctionalDataPropertyAxiom axiom = factory.getOWLFunctionalDataPropertyAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLAnnotationProperty addAnnotationProperty(final OWLOntology ontology, final String iri) {
 		final OWLAnnotationProperty property = factory.getOWLAnnotationProperty(iri);
 		final OWLDeclarationAxiom axiom = factory.getOWLDeclarationAxiom(property);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return property;
 	}
 
 	public OWLNamedIndividual addNamedIndividual(final OWLOntology ontology, final String iri) {
 		final OWLNamedIndividual individual = factory.getOWLNamedIndividual(iri);
 		final OWLDeclarationAxiom axiom = factory.getOWLDeclarationAxiom(individual);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return individual;
 	}
 
@@ -280,7 +310,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 
 	public SWRLRule addRule(final OWLOntology ontology, final List<SWRLAtom> body, final List<SWRLAtom> head, final OWLAnnotation... annotations) {
 		final SWRLRule axiom = factory.getSWRLRule(body, head, Arrays.asList(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -332,21 +362,21 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLClass subClass = factory.getOWLClass(subIri);
 		final OWLClass supClass = factory.getOWLClass(superIri);
 		final OWLSubClassOfAxiom axiom = factory.getOWLSubClassOfAxiom(subClass, supClass, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
 	public OWLSubClassOfAxiom addSubClassOf(final OWLOntology ontology, final String subIri, final OWLClassExpression superExpression, final OWLAnnotation... annotations) {
 		final OWLClass subClass = factory.getOWLClass(subIri);
 		final OWLSubClassOfAxiom axiom = factory.getOWLSubClassOfAxiom(subClass, superExpression, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
 	public OWLEquivalentClassesAxiom addEquivalentClasses(final OWLOntology ontology, final String classIri, OWLClassExpression equivalentClass, final OWLAnnotation... annotations) {
 		final OWLClass class1 = factory.getOWLClass(classIri);
 		final OWLEquivalentClassesAxiom axiom = factory.getOWLEquivalentClassesAxiom(class1, equivalentClass, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -354,7 +384,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLClass class1 = (factory.getOWLClass(classIri));
 		final OWLClass class2 = factory.getOWLClass(equivalentClassIri);
 		final OWLEquivalentClassesAxiom axiom = factory.getOWLEquivalentClassesAxiom(class1, class2, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -363,7 +393,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		properties.add(factory.getOWLDataProperty(propertyIri));
 		properties.add(factory.getOWLDataProperty(equivalentPropertyIri));
 		final OWLEquivalentDataPropertiesAxiom axiom = factory.getOWLEquivalentDataPropertiesAxiom(properties, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -372,7 +402,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		properties.add(factory.getOWLObjectProperty(propertyIri));
 		properties.add(factory.getOWLObjectProperty(equivalentPropertyIri));
 		final OWLEquivalentObjectPropertiesAxiom axiom = factory.getOWLEquivalentObjectPropertiesAxiom(properties, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -386,7 +416,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 	public OWLHasKeyAxiom addHasKey(final OWLOntology ontology, final String classIri, final List<OWLProperty> keyProperties, final OWLAnnotation... annotations) {
 		final OWLClass aClass = factory.getOWLClass(classIri);
 		final OWLHasKeyAxiom axiom = factory.getOWLHasKeyAxiom(aClass, keyProperties, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -497,7 +527,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLObjectProperty subProperty = factory.getOWLObjectProperty(subPropertyIri);
 		final OWLObjectProperty supProperty = factory.getOWLObjectProperty(superPropertyIri);
 		final OWLSubObjectPropertyOfAxiom axiom = factory.getOWLSubObjectPropertyOfAxiom(subProperty, supProperty, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -505,7 +535,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(propertyIri);
 		final OWLClass domain = factory.getOWLClass(domainIri);
 		final OWLObjectPropertyDomainAxiom axiom = factory.getOWLObjectPropertyDomainAxiom(property, domain);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -513,7 +543,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLObjectProperty property = factory.getOWLObjectProperty(propertyIri);
 		final OWLClass range = factory.getOWLClass(rangeIri);
 		final OWLObjectPropertyRangeAxiom axiom = factory.getOWLObjectPropertyRangeAxiom(property, range);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -521,7 +551,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLDataProperty subProperty = factory.getOWLDataProperty(subPropertyIri);
 		final OWLDataProperty supProperty = factory.getOWLDataProperty(superPropertyIri);
 		final OWLSubDataPropertyOfAxiom axiom = factory.getOWLSubDataPropertyOfAxiom(subProperty, supProperty, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -529,7 +559,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLDataProperty property = factory.getOWLDataProperty(propertyIri);
 		final OWLClass domain = factory.getOWLClass(domainIri);
 		final OWLDataPropertyDomainAxiom axiom = factory.getOWLDataPropertyDomainAxiom(property, domain);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -537,7 +567,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLDataProperty property = factory.getOWLDataProperty(propertyIri);
 		final OWLDatatype range = factory.getOWLDatatype(rangeIri);
 		final OWLDataPropertyRangeAxiom axiom = factory.getOWLDataPropertyRangeAxiom(property, range);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -545,7 +575,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLObjectProperty forwardproperty = factory.getOWLObjectProperty(forwardPropertyIri);
 		final OWLObjectProperty inverseProperty = factory.getOWLObjectProperty(inversePropertyIri);
 		final OWLInverseObjectPropertiesAxiom axiom = factory.getOWLInverseObjectPropertiesAxiom(forwardproperty, inverseProperty);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -553,14 +583,14 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		final OWLNamedIndividual individual = factory.getOWLNamedIndividual(individualIri);
 		final OWLClass class_ = factory.getOWLClass(classIri);
 		final OWLClassAssertionAxiom axiom = factory.getOWLClassAssertionAxiom(class_, individual, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
 	public OWLClassAssertionAxiom addClassAssertion(final OWLOntology ontology, final OWLIndividual individual, final String classIri, final OWLAnnotation... annotations) {
 		final OWLClass class_ = factory.getOWLClass(classIri);
 		final OWLClassAssertionAxiom axiom = factory.getOWLClassAssertionAxiom(class_, individual, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -579,7 +609,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		addObjectProperty(ontology, propertyIri);
 		final OWLObjectProperty property = factory.getOWLObjectProperty(propertyIri);
 		final OWLObjectPropertyAssertionAxiom axiom = factory.getOWLObjectPropertyAssertionAxiom(property, individual, object, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -592,7 +622,7 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 		addDataProperty(ontology, propertyIri);
 		final OWLDataProperty property = factory.getOWLDataProperty(propertyIri);
 		final OWLDataPropertyAssertionAxiom axiom = factory.getOWLDataPropertyAssertionAxiom(property, individual, literal, checkIfNeeded(annotations));
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -609,13 +639,13 @@ class OwlApi extends io.opencaesar.closeworld.OwlApi {
 
 	public OWLAnnotationAssertionAxiom addAnnotationAssertion(final OWLOntology ontology, final String subjectIri, final OWLAnnotation annotation) {
 		final OWLAnnotationAssertionAxiom axiom = factory.getOWLAnnotationAssertionAxiom(IRI.create(subjectIri), annotation);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
 	public OWLAnnotationAssertionAxiom addAnnotationAssertion(final OWLOntology ontology, final OWLAnonymousIndividual individual, final OWLAnnotation annotation) {
 		final OWLAnnotationAssertionAxiom axiom = factory.getOWLAnnotationAssertionAxiom(individual, annotation);
-		manager.addAxiom(ontology, axiom);
+		add(ontology, axiom);
 		return axiom;
 	}
 
@@ -0,0 +1,147 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+
+import io.opencaesar.oml.Import;
+import io.opencaesar.oml.Ontology;
+import io.opencaesar.oml.util.OmlRead;
+
+/**
+ * A loader that parses Oml resources in parallel, each in its own resource set, and then
+ * merges them into a single resource set. The imports of every parsed ontology are prefetched
+ * as soon as the ontology is parsed.
+ */
+class ParallelOmlLoader {
+
+	private final Logger LOGGER = LogManager.getLogger(ParallelOmlLoader.class);
+
+	private final ResourceSet resourceSet;
+	private final int threadCount;
+	private final Function<String, URI> importResolver;
+	private final Map<URI, Future<Resource>> loads = new ConcurrentHashMap<>();
+	private ExecutorService executor;
+
+	/**
+	 * Creates a new ParallelOmlLoader object
+	 *
+	 * @param resourceSet The resource set to merge the loaded resources into
+	 * @param threadCount The number of threads used to parse resources
+	 * @param importResolver A function that resolves an imported ontology IRI to a resource URI
+	 */
+	public ParallelOmlLoader(ResourceSet resourceSet, int threadCount, Function<String, URI> importResolver) {
+		this.resourceSet = resourceSet;
+		this.threadCount = threadCount;
+		this.importResolver = importResolver;
+	}
+
+	/**
+	 * Loads the resources with the given URIs along with their import closures
+	 *
+	 * @param uris The URIs of the resources to load
+	 * @return The loaded resources of the given URIs (in the same order)
+	 * @throws Exception when a resource fails to load
+	 */
+	public List<Resource> load(Collection<URI> uris) throws Exception {
+		executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			uris.forEach(uri -> prefetch(uri));
+
+			// wait until no more imports get prefetched
+			int count;
+			do {
+				count = loads.size();
+				for (var load : new ArrayList<>(loads.values())) {
+					try {
+						load.get();
+					} catch (ExecutionException e) {
+						throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+					}
+				}
+			} while (count != loads.size());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// merge the resources in a deterministic order: requested URIs first, then imports sorted by URI
+		final List<URI> order = new ArrayList<>(uris);
+		loads.keySet().stream()
+			.filter(uri -> !uris.contains(uri))
+			.sorted(Comparator.comparing(URI::toString))
+			.forEach(uri -> order.add(uri));
+		for (URI uri : order) {
+			final Resource resource = loads.get(uri).get();
+			if (resource != null && resourceSet.getResource(uri, false) == null) {
+				resourceSet.getResources().add(resource);
+			}
+		}
+
+		final List<Resource> resources = new ArrayList<>();
+		for (URI uri : uris) {
+			resources.add(resourceSet.getResource(uri, false));
+		}
+		return resources;
+	}
+
+	private void prefetch(URI uri) {
+		loads.computeIfAbsent(uri, u -> executor.submit(() -> parse(u)));
+	}
+
+	private Resource parse(URI uri) {
+		LOGGER.info(("Reading: " + uri));
+		final ResourceSet localResourceSet = new ResourceSetImpl();
+		final Resource resource = localResourceSet.getResource(uri, true);
+		final Ontology ontology = OmlRead.getOntology(resource);
+		if (ontology != null) {
+			for (Import import_ : ontology.getOwnedImports()) {
+				final URI importUri = resolveImport(import_.getIri());
+				if (importUri != null && importUri.isFile() && new File(importUri.toFileString()).isFile()) {
+					prefetch(importUri);
+				}
+			}
+		}
+		return resource;
+	}
+
+	private URI resolveImport(String iri) {
+		// the catalog resolution is not guaranteed to be thread-safe
+		synchronized (importResolver) {
+			return importResolver.apply(iri);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor of the tasks that save output files. It runs the tasks on a fixed number of threads and
+ * holds the pending ones in a bounded queue; when the queue is full, a task runs on the thread that
+ * submits it, which slows down the producer of the outputs instead of letting them pile up in memory.
+ * With a single thread, the tasks run on the thread that submits them (i.e., the outputs are saved
+ * sequentially). The failures of the tasks are reported when waiting for them.
+ */
+class SaveExecutor {
+
+	/**
+	 * A task that saves an output file
+	 */
+	interface SaveTask {
+		void run() throws Exception;
+	}
+
+	private final ThreadPoolExecutor executor;
+	private final Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Creates a new SaveExecutor object
+	 *
+	 * @param threadCount The number of threads that save files (1 to save them on the submitting thread)
+	 * @param queueSize The maximum number of tasks waiting for a thread
+	 */
+	public SaveExecutor(int threadCount, int queueSize) {
+		this.executor = (threadCount <= 1) ? null : new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Submits the given task. A failing task does not stop the others, and its failure is rethrown by await().
+	 *
+	 * @param task The task to run
+	 */
+	public void submit(SaveTask task) {
+		final Runnable runnable = () -> {
+			try {
+				task.run();
+			} catch (Exception e) {
+				failures.add(e);
+			}
+		};
+		if (executor != null) {
+			executor.execute(runnable);
+		} else {
+			runnable.run();
+		}
+	}
+
+	/**
+	 * Stops the threads of the executor without waiting for the submitted tasks (does nothing once they
+	 * are awaited, and is meant to be called when a failure makes their outputs irrelevant)
+	 */
+	public void shutdownNow() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Waits for all the submitted tasks to finish, then shuts down the executor
+	 *
+	 * @throws Exception the failure of the first failed task (with the failures of other tasks as suppressed exceptions)
+	 */
+	public void await() throws Exception {
+		if (executor != null) {
+			executor.shutdown();
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				// keep waiting for long saves
+			}
+		}
+		final Exception failure = failures.poll();
+		if (failure != null) {
+			failures.forEach(failure::addSuppressed);
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFWriter;
+import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationObject;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLInverseObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.vocab.Namespaces;
+import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
+
+/**
+ * An Owl API that streams the triples of the axioms it creates directly to an RDF writer instead of
+ * adding them to the (otherwise empty) Owl ontology. It supports the axioms generated for descriptions,
+ * and throws an UnsupportedAxiomException for any other axiom, in which case the output is incomplete
+ * and the ontology should be converted in memory instead. Like an Owl ontology, it writes the objects
+ * that the conversion repeats (declarations, inverse property axioms, imports and ontology annotations)
+ * only once, while the other axioms (i.e., the assertions that make up most of a description) are written
+ * straight through without being retained.
+ */
+class StreamingOwlApi extends OwlApi {
+
+	private static final Map<String, RDFFormat> formats = new HashMap<>();
+
+	static {
+		formats.put("ttl", RDFFormat.TURTLE);
+		formats.put("nt", RDFFormat.NTRIPLES);
+		formats.put("nq", RDFFormat.NQUADS);
+	}
+
+	private final ValueFactory vf = SimpleValueFactory.getInstance();
+	private final RDFWriter writer;
+	private Resource context;
+	private OWLOntology ontology;
+	// declarations and inverse property axioms (and ontology annotations and imports) can be added more than
+	// once (e.g., they are repeated for every reference to a property) but an Owl ontology only has them once
+	private final Set<Object> writtenObjects = new HashSet<>();
+
+	public StreamingOwlApi(final OWLOntologyManager manager, final boolean annotationsOnAxioms, final RDFWriter writer) {
+		super(manager, annotationsOnAxioms);
+		this.writer = writer;
+		this.writer.getWriterConfig().set(BasicWriterSettings.INLINE_BLANK_NODES, false);
+	}
+
+	static boolean isSupported(final String fileExtension) {
+		return formats.containsKey(fileExtension);
+	}
+
+	static RDFFormat getFormat(final String fileExtension) {
+		return formats.get(fileExtension);
+	}
+
+	/**
+	 * Gets the (empty) Owl ontology created by this API
+	 *
+	 * @return the Owl ontology, or null if none was created
+	 */
+	OWLOntology getOntology() {
+		return ontology;
+	}
+
+	@Override
+	public OWLOntology createOntology(String prefix, String namespace) {
+		final OWLOntology ontology = super.createOntology(prefix, namespace);
+		if (ontology == null) {
+			return null;
+		}
+		this.ontology = ontology;
+		final org.eclipse.rdf4j.model.IRI ontologyIri = toIri(ontology.getOntologyID().getOntologyIRI().get());
+		if (writer.getRDFFormat().supportsContexts()) {
+			context = ontologyIri;
+		}
+		writer.handleNamespace("", namespace);
+		writer.handleNamespace(prefix, namespace);
+		writer.handleNamespace("owl", Namespaces.OWL.getPrefixIRI());
+		writer.handleNamespace("rdf", Namespaces.RDF.getPrefixIRI());
+		writer.handleNamespace("rdfs", Namespaces.RDFS.getPrefixIRI());
+		writer.handleNamespace("xsd", Namespaces.XSD.getPrefixIRI());
+		write(ontologyIri, OWLRDFVocabulary.RDF_TYPE.getIRI(), toIri(OWLRDFVocabulary.OWL_ONTOLOGY.getIRI()));
+		return ontology;
+	}
+
+	@Override
+	public OWLImportsDeclaration addImportsDeclaration(final OWLOntology ontology, final String iri) {
+		final OWLImportsDeclaration import_ = factory.getOWLImportsDeclaration(IRI.create(iri));
+		if (!writtenObjects.add(import_)) {
+			return import_;
+		}
+		write(toIri(ontology), OWLRDFVocabulary.OWL_IMPORTS.getIRI(), toIri(import_.getIRI()));
+		return import_;
+	}
+
+	@Override
+	public OWLAnnotation addOntologyAnnotation(final OWLOntology ontology, final OWLAnnotation annotation) {
+		if (!writtenObjects.add(annotation)) {
+			return annotation;
+		}
+		write(toIri(ontology), annotation.getProperty().getIRI(), toValue(annotation.getValue()));
+		return annotation;
+	}
+
+	@Override
+	protected void add(final OWLOntology ontology, final OWLAxiom axiom) {
+		if (isRepeatable(axiom) && !writtenObjects.add(axiom)) {
+			return;
+		}
+		if (axiom instanceof OWLDeclarationAxiom) {
+			final OWLDeclarationAxiom a = (OWLDeclarationAxiom) axiom;
+			write(a, toIri(a.getEntity().getIRI()), OWLRDFVocabulary.RDF_TYPE.getIRI(), toIri(a.getEntity().getEntityType().getIRI()));
+		} else if (axiom instanceof OWLClassAssertionAxiom) {
+			final OWLClassAssertionAxiom a = (OWLClassAssertionAxiom) axiom;
+			write(a, toResource(a.getIndividual()), OWLRDFVocabulary.RDF_TYPE.getIRI(), toIri(a.getClassExpression().asOWLClass().getIRI()));
+		} else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			final OWLObjectPropertyAssertionAxiom a = (OWLObjectPropertyAssertionAxiom) axiom;
+			write(a, toResource(a.getSubject()), a.getProperty().asOWLObjectProperty().getIRI(), toResource(a.getObject()));
+		} else if (axiom instanceof OWLDataPropertyAssertionAxiom) {
+			final OWLDataPropertyAssertionAxiom a = (OWLDataPropertyAssertionAxiom) axiom;
+			write(a, toResource(a.getSubject()), a.getProperty().asOWLDataProperty().getIRI(), toValue(a.getObject()));
+		} else if (axiom instanceof OWLAnnotationAssertionAxiom) {
+			final OWLAnnotationAssertionAxiom a = (OWLAnnotationAssertionAxiom) axiom;
+			write(a, (Resource) toValue(a.getSubject()), a.getProperty().getIRI(), toValue(a.getValue()));
+		} else if (axiom instanceof OWLInverseObjectPropertiesAxiom) {
+			final OWLInverseObjectPropertiesAxiom a = (OWLInverseObjectPropertiesAxiom) axiom;
+			write(a, toIri(a.getFirstProperty().asOWLObjectProperty().getIRI()), OWLRDFVocabulary.OWL_INVERSE_OF.getIRI(), toIri(a.getSecondProperty().asOWLObjectProperty().getIRI()));
+		} else {
+			throw new UnsupportedAxiomException(axiom);
+		}
+	}
+
+	private static boolean isRepeatable(final OWLAxiom axiom) {
+		return axiom instanceof OWLDeclarationAxiom || axiom instanceof OWLInverseObjectPropertiesAxiom;
+	}
+
+	@Override
+	public void flush(final OWLOntology ontology) {
+		// axioms are streamed as soon as they are added
+	}
+
+	private void write(final OWLAxiom axiom, final Resource subject, final IRI predicate, final Value object) {
+		write(subject, predicate, object);
+		final List<OWLAnnotation> annotations = axiom.annotationsAsList();
+		if (!annotations.isEmpty()) {
+			final BNode node = vf.createBNode();
+			write(node, OWLRDFVocabulary.RDF_TYPE.getIRI(), toIri(OWLRDFVocabulary.OWL_AXIOM.getIRI()));
+			write(node, OWLRDFVocabulary.OWL_ANNOTATED_SOURCE.getIRI(), subject);
+			write(node, OWLRDFVocabulary.OWL_ANNOTATED_PROPERTY.getIRI(), toIri(predicate));
+			write(node, OWLRDFVocabulary.OWL_ANNOTATED_TARGET.getIRI(), object);
+			annotations.forEach(a -> write(node, a.getProperty().getIRI(), toValue(a.getValue())));
+		}
+	}
+
+	private void write(final Resource subject, final IRI predicate, final Value object) {
+		if (context != null) {
+			writer.handleStatement(vf.createStatement(subject, toIri(predicate), object, context));
+		} else {
+			writer.handleStatement(vf.createStatement(subject, toIri(predicate), object));
+		}
+	}
+
+	private org.eclipse.rdf4j.model.IRI toIri(final OWLOntology ontology) {
+		return toIri(ontology.getOntologyID().getOntologyIRI().get());
+	}
+
+	private org.eclipse.rdf4j.model.IRI toIri(final IRI iri) {
+		return vf.createIRI(iri.toString());
+	}
+
+	private Resource toResource(final OWLIndividual individual) {
+		if (individual.isAnonymous()) {
+			return toBNode(individual.asOWLAnonymousIndividual());
+		}
+		return toIri(individual.asOWLNamedIndividual().getIRI());
+	}
+
+	private BNode toBNode(final OWLAnonymousIndividual individual) {
+		// node ids are unique per JVM; only keep the characters that are valid in a blank node label
+		return vf.createBNode(individual.getID().getID().replaceAll("[^A-Za-z0-9]", ""));
+	}
+
+	private Value toValue(final OWLAnnotationObject value) {
+		if (value instanceof IRI) {
+			return toIri((IRI) value);
+		} else if (value instanceof OWLAnonymousIndividual) {
+			return toBNode((OWLAnonymousIndividual) value);
+		}
+		return toValue((OWLLiteral) value);
+	}
+
+	private Value toValue(final OWLLiteral literal) {
+		if (literal.hasLang()) {
+			return vf.createLiteral(literal.getLiteral(), literal.getLang());
+		} else if (literal.isRDFPlainLiteral()) {
+			return vf.createLiteral(literal.getLiteral());
+		}
+		return vf.createLiteral(literal.getLiteral(), toIri(literal.getDatatype().getIRI()));
+	}
+
+	/**
+	 * An exception thrown when an axiom that cannot be streamed is added
+	 */
+	static class UnsupportedAxiomException extends UnsupportedOperationException {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedAxiomException(final OWLAxiom axiom) {
+			super("Axiom type "+axiom.getAxiomType()+" cannot be streamed: "+axiom);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature.Setting;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+
+/**
+ * A cross reference adapter that can be shared by threads converting the ontologies of one resource set.
+ * Inverse reference lookups resolve proxies and update the adapter's maps, so every access to its state
+ * is serialized, and lookups return copies that stay consistent after the lock is released.
+ */
+class SynchronizedCrossReferenceAdapter extends ECrossReferenceAdapter {
+
+	/**
+	 * Creates a new SynchronizedCrossReferenceAdapter object
+	 */
+	public SynchronizedCrossReferenceAdapter() {
+	}
+
+	@Override
+	public synchronized Collection<Setting> getNonNavigableInverseReferences(EObject eObject, boolean resolve) {
+		return new ArrayList<>(super.getNonNavigableInverseReferences(eObject, resolve));
+	}
+
+	@Override
+	public synchronized Collection<Setting> getInverseReferences(EObject eObject, boolean resolve) {
+		return new ArrayList<>(super.getInverseReferences(eObject, resolve));
+	}
+
+	@Override
+	public synchronized Collection<Setting> getInverseReferences(EObject eObject, EReference eReference, boolean resolve) {
+		return new ArrayList<>(super.getInverseReferences(eObject, eReference, resolve));
+	}
+
+	@Override
+	public synchronized void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+	}
+
+	@Override
+	public synchronized void setTarget(Notifier target) {
+		super.setTarget(target);
+	}
+
+	@Override
+	public synchronized void unsetTarget(Notifier target) {
+		super.unsetTarget(target);
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.resource.Resource;
+
+import io.opencaesar.oml.Ontology;
+import io.opencaesar.oml.util.OmlRead;
+
+/**
+ * An on-disk cache of successful validation outcomes. A resource is keyed by a hash of its content
+ * and the content hashes of its import closure, so it is only validated again when it, or one of
+ * the ontologies it imports, has changed.
+ */
+class ValidationCache {
+
+	private static final String VERSION_KEY = "version";
+
+	private final File cacheFile;
+	private final String version;
+	private final Map<String, String> cachedKeys = new ConcurrentHashMap<>();
+	private final Map<String, String> validKeys = new ConcurrentHashMap<>();
+	private final Map<Resource, Optional<String>> contentHashes = new ConcurrentHashMap<>();
+	private final Map<Resource, Optional<String>> keys = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new ValidationCache object
+	 *
+	 * @param cacheFile The file that persists the cache
+	 * @param version The version of the tool (a cache written by another version is discarded)
+	 * @throws IOException when the cache file cannot be read
+	 */
+	public ValidationCache(File cacheFile, String version) throws IOException {
+		this.cacheFile = cacheFile;
+		this.version = version;
+		if (cacheFile.isFile()) {
+			final Properties properties = new Properties();
+			try (InputStream input = new FileInputStream(cacheFile)) {
+				properties.load(input);
+			}
+			if (version.equals(properties.getProperty(VERSION_KEY))) {
+				properties.remove(VERSION_KEY);
+				properties.forEach((uri, key) -> cachedKeys.put((String) uri, (String) key));
+			}
+		}
+	}
+
+	/**
+	 * Determines whether the given resource was validated successfully before and has not changed since
+	 *
+	 * @param resource The resource to check
+	 * @return true if validation of the resource can be skipped
+	 */
+	public boolean isValid(Resource resource) {
+		final String key = getKey(resource);
+		final String uri = resource.getURI().toString();
+		if (key != null && key.equals(cachedKeys.get(uri))) {
+			validKeys.put(uri, key);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Records that the given resource has been validated successfully
+	 *
+	 * @param resource The validated resource
+	 */
+	public void setValid(Resource resource) {
+		final String key = getKey(resource);
+		if (key != null) {
+			validKeys.put(resource.getURI().toString(), key);
+		}
+	}
+
+	/**
+	 * Saves the entries of the resources that are valid in this run (stale entries are dropped)
+	 *
+	 * @throws IOException when the cache file cannot be written
+	 */
+	public void save() throws IOException {
+		final Properties properties = new Properties();
+		properties.putAll(validKeys);
+		properties.put(VERSION_KEY, version);
+		cacheFile.getAbsoluteFile().getParentFile().mkdirs();
+		try (OutputStream output = new FileOutputStream(cacheFile)) {
+			properties.store(output, "Oml validation cache");
+		}
+	}
+
+	private String getKey(Resource resource) {
+		return keys.computeIfAbsent(resource, r -> {
+			final Ontology ontology = OmlRead.getOntology(r);
+			final Optional<String> contentHash = getContentHash(r);
+			if (ontology == null || contentHash.isEmpty()) {
+				return Optional.empty();
+			}
+			final MessageDigest digest = createDigest();
+			digest.update(contentHash.get().getBytes(StandardCharsets.UTF_8));
+			final var importedHashes = OmlRead.getImportedOntologyClosure(ontology, false).stream()
+					.map(o -> (o.eResource() != null) ? getContentHash(o.eResource()) : Optional.<String>empty())
+					.toList();
+			if (importedHashes.stream().anyMatch(Optional::isEmpty)) {
+				return Optional.empty();
+			}
+			importedHashes.stream().map(Optional::get).sorted().forEach(h -> digest.update(h.getBytes(StandardCharsets.UTF_8)));
+			return Optional.of(HexFormat.of().formatHex(digest.digest()));
+		}).orElse(null);
+	}
+
+	private Optional<String> getContentHash(Resource resource) {
+		return contentHashes.computeIfAbsent(resource, r -> {
+			if (!r.getURI().isFile()) {
+				return Optional.empty();
+			}
+			final File file = new File(r.getURI().toFileString());
+			if (!file.isFile()) {
+				return Optional.empty();
+			}
+			final MessageDigest digest = createDigest();
+			final byte[] buffer = new byte[64 * 1024];
+			try (InputStream input = new FileInputStream(file)) {
+				int count;
+				while ((count = input.read(buffer)) != -1) {
+					digest.update(buffer, 0, count);
+				}
+			} catch (IOException e) {
+				return Optional.empty();
+			}
+			return Optional.of(HexFormat.of().formatHex(digest.digest()));
+		});
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jgrapht.Graph;
+import org.jgrapht.alg.TransitiveReduction;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import io.opencaesar.oml2owl.CloseVocabularyBundle.ConceptGraph;
+
+/**
+ * Tests the transitive reduction of the concept graph (against the one of JGraphT) and its split into parts
+ */
+public class CloseVocabularyBundleTest {
+
+	@Test
+	public void testReduceDiamond() {
+		final Map<String, String[]> supers = new LinkedHashMap<>();
+		supers.put("A", new String[] {});
+		supers.put("B", new String[] { "A" });
+		supers.put("C", new String[] { "A" });
+		supers.put("D", new String[] { "B", "C", "A" });
+		testReduction(supers);
+		assertEquals(edges("A>B", "A>C", "B>D", "C>D"), reduce(supers, null));
+	}
+
+	@Test
+	public void testReduceChain() {
+		final Map<String, String[]> supers = new LinkedHashMap<>();
+		supers.put("A", new String[] {});
+		supers.put("B", new String[] { "A" });
+		supers.put("C", new String[] { "A", "B" });
+		supers.put("D", new String[] { "A", "C", "B" });
+		testReduction(supers);
+		assertEquals(edges("A>B", "B>C", "C>D"), reduce(supers, null));
+	}
+
+	@Test
+	public void testReduceMixed() {
+		final Map<String, String[]> supers = new LinkedHashMap<>();
+		supers.put("A", new String[] {});
+		supers.put("B", new String[] { "A" });
+		supers.put("C", new String[] { "A" });
+		supers.put("D", new String[] { "B", "C" });
+		supers.put("E", new String[] { "D", "A", "C" });
+		supers.put("F", new String[] { "E", "B" });
+		supers.put("G", new String[] {});
+		supers.put("H", new String[] { "G", "F" });
+		supers.put("I", new String[] { "H", "D", "G" });
+		testReduction(supers);
+	}
+
+	@Test
+	public void testSplit() {
+		final Map<String, String[]> supers = new LinkedHashMap<>();
+		// a multi-root component
+		supers.put("A", new String[] {});
+		supers.put("B", new String[] {});
+		supers.put("C", new String[] { "A", "B" });
+		// a single-root component
+		supers.put("R", new String[] {});
+		supers.put("S", new String[] { "R" });
+		supers.put("T", new String[] { "R" });
+		supers.put("U", new String[] { "S", "T" });
+		// an isolated concept
+		supers.put("W", new String[] {});
+		final List<ConceptGraph> parts = createGraph(supers).split();
+		assertEquals(2, parts.size());
+
+		// the first part has the multi-root component, the isolated concept and the root of the single-root component
+		assertTrue(parts.get(0).isRooted());
+		assertEquals(iris("A", "B", "C", "R", "W"), parts.get(0).getVertexIris());
+		assertEquals(edges("A>C", "B>C"), edges(parts.get(0)));
+
+		// the single-root component is a part of its own
+		assertFalse(parts.get(1).isRooted());
+		assertEquals(iris("R", "S", "T", "U"), parts.get(1).getVertexIris());
+		assertEquals(edges("R>S", "R>T", "S>U", "T>U"), edges(parts.get(1)));
+	}
+
+	/**
+	 * Checks that the reduction (sequential and on a pool) has the same edges as the one of JGraphT
+	 */
+	private static void testReduction(Map<String, String[]> supers) {
+		final Graph<String, DefaultEdge> graph = new SimpleDirectedGraph<>(DefaultEdge.class);
+		supers.keySet().forEach(v -> graph.addVertex(v));
+		supers.forEach((v, ss) -> Arrays.stream(ss).forEach(s -> graph.addEdge(s, v)));
+		TransitiveReduction.INSTANCE.reduce(graph);
+		final Set<String> expected = new HashSet<>();
+		graph.edgeSet().forEach(e -> expected.add(graph.getEdgeSource(e) + ">" + graph.getEdgeTarget(e)));
+
+		assertEquals(expected, reduce(supers, null));
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			assertEquals(expected, reduce(supers, pool));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static Set<String> reduce(Map<String, String[]> supers, ForkJoinPool pool) {
+		final List<String> names = new ArrayList<>(supers.keySet());
+		final int[] offsets = new int[names.size() + 1];
+		final List<Integer> targets = new ArrayList<>();
+		for (int i = 0; i < names.size(); i++) {
+			for (String s : supers.get(names.get(i))) {
+				targets.add(names.indexOf(s));
+			}
+			offsets[i + 1] = targets.size();
+		}
+		final int[] targetArray = targets.stream().mapToInt(t -> t).toArray();
+		final boolean[] kept = new CloseVocabularyBundle(Collections.emptySet()).withPool(pool).transitiveReduction(offsets, targetArray);
+		final Set<String> edges = new HashSet<>();
+		for (int i = 0; i < names.size(); i++) {
+			for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+				if (kept[k]) {
+					edges.add(names.get(targetArray[k]) + ">" + names.get(i));
+				}
+			}
+		}
+		return edges;
+	}
+
+	private static ConceptGraph createGraph(Map<String, String[]> supers) {
+		final List<String> names = new ArrayList<>(supers.keySet());
+		final int[] offsets = new int[names.size() + 1];
+		final List<Integer> targets = new ArrayList<>();
+		for (int i = 0; i < names.size(); i++) {
+			for (String s : supers.get(names.get(i))) {
+				targets.add(names.indexOf(s));
+			}
+			offsets[i + 1] = targets.size();
+		}
+		final boolean[] reduced = new boolean[targets.size()];
+		Arrays.fill(reduced, true);
+		return new ConceptGraph(iris(names.toArray(new String[0])), offsets, targets.stream().mapToInt(t -> t).toArray(), reduced, true);
+	}
+
+	private static List<String> iris(String... names) {
+		final List<String> iris = new ArrayList<>();
+		Arrays.stream(names).forEach(n -> iris.add("http://example.com/vocabulary#"+n));
+		return iris;
+	}
+
+	private static Set<String> edges(ConceptGraph graph) {
+		final Set<String> edges = new HashSet<>();
+		graph.getEdgeIris().forEach(e -> edges.add(e[0].substring(e[0].indexOf('#') + 1) + ">" + e[1].substring(e[1].indexOf('#') + 1)));
+		return edges;
+	}
+
+	private static Set<String> edges(String... edges) {
+		return new HashSet<>(Arrays.asList(edges));
+	}
+}
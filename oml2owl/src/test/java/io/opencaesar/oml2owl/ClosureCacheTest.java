@@ -0,0 +1,134 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import io.opencaesar.closeworld.Axiom;
+import io.opencaesar.oml2owl.CloseVocabularyBundle.CloseVocabularyBundleToOwl;
+import io.opencaesar.oml2owl.CloseVocabularyBundle.ConceptGraph;
+
+/**
+ * Tests that closing a bundle with the closure cache (whether the whole concept graph or only some of its
+ * parts are cached) gives the same axioms as closing it without the cache
+ */
+public class ClosureCacheTest {
+
+	private static final String BUNDLE_IRI = "http://example.com/bundle";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testDisjointClasses() throws Exception {
+		testClosure(Axiom.AxiomType.DISJOINT_CLASSES);
+	}
+
+	@Test
+	public void testDisjointUnion() throws Exception {
+		testClosure(Axiom.AxiomType.DISJOINT_UNION);
+	}
+
+	private void testClosure(Axiom.AxiomType axiomType) throws Exception {
+		final ClosureCache cache = new ClosureCache(folder.newFolder(), "test");
+		final ConceptGraph graph = createGraph(false);
+		final ConceptGraph changedGraph = createGraph(true);
+		final Set<OWLAxiom> expected = close(graph, axiomType, null);
+		final Set<OWLAxiom> changedExpected = close(changedGraph, axiomType, null);
+		assertFalse(expected.isEmpty());
+		assertFalse(expected.equals(changedExpected));
+
+		// the parts are generated separately and cached
+		assertEquals(expected, close(graph, axiomType, cache));
+		// the whole graph is cached
+		assertEquals(expected, close(graph, axiomType, cache));
+		// the parts that did not change are cached
+		assertEquals(changedExpected, close(changedGraph, axiomType, cache));
+		// the parts that changed back are generated again
+		assertEquals(expected, close(graph, axiomType, cache));
+	}
+
+	private static Set<OWLAxiom> close(ConceptGraph graph, Axiom.AxiomType axiomType, ClosureCache cache) {
+		final OwlApi owlApi = new OwlApi(OWLManager.createOWLOntologyManager(), false);
+		final CloseVocabularyBundleToOwl closure = new CloseVocabularyBundleToOwl(Collections.emptySet(), null, false, owlApi);
+		if (cache != null) {
+			closure.withCache(cache, BUNDLE_IRI);
+		}
+		return new HashSet<>(closure.getClosureAxioms(graph, axiomType));
+	}
+
+	/**
+	 * Creates a (transitively-reduced) concept graph with a single-root component that has multiple inheritance,
+	 * a single-root chain, a multi-root component and an isolated concept. The changed graph has another concept
+	 * in the chain.
+	 */
+	private static ConceptGraph createGraph(boolean changed) {
+		final Map<String, String[]> supers = new LinkedHashMap<>();
+		supers.put("R", new String[] {});
+		supers.put("A", new String[] { "R" });
+		supers.put("B", new String[] { "R" });
+		supers.put("C", new String[] { "A", "B" });
+		supers.put("D", new String[] { "C" });
+		supers.put("E", new String[] { "A" });
+		supers.put("S", new String[] {});
+		supers.put("T", new String[] { "S" });
+		supers.put("U", new String[] { "T" });
+		if (changed) {
+			supers.put("V", new String[] { "T" });
+		}
+		supers.put("X", new String[] {});
+		supers.put("Y", new String[] {});
+		supers.put("Z", new String[] { "X", "Y" });
+		supers.put("W", new String[] {});
+		return createGraph(supers);
+	}
+
+	private static ConceptGraph createGraph(Map<String, String[]> supers) {
+		final List<String> names = new ArrayList<>(supers.keySet());
+		final List<String> vertexIris = new ArrayList<>();
+		names.forEach(n -> vertexIris.add("http://example.com/vocabulary#"+n));
+		final int[] offsets = new int[names.size() + 1];
+		final List<Integer> targets = new ArrayList<>();
+		for (int i = 0; i < names.size(); i++) {
+			for (String s : supers.get(names.get(i))) {
+				targets.add(names.indexOf(s));
+			}
+			offsets[i + 1] = targets.size();
+		}
+		final boolean[] reduced = new boolean[targets.size()];
+		Arrays.fill(reduced, true);
+		return new ConceptGraph(vertexIris, offsets, targets.stream().mapToInt(t -> t).toArray(), reduced, true);
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.oml2owl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests the import closures and the dependents of ontologies on an import graph with a cycle
+ */
+public class OmlImportGraphTest {
+
+	/**
+	 * Creates an import graph where a, b and c import each other in a cycle, a also imports d, which imports
+	 * an ontology that is not in the graph, and e imports a
+	 */
+	private static OmlImportGraph createGraph() {
+		final Map<String, List<String>> imports = new LinkedHashMap<>();
+		imports.put("a", Arrays.asList("b", "d"));
+		imports.put("b", Arrays.asList("c"));
+		imports.put("c", Arrays.asList("a"));
+		imports.put("d", Arrays.asList("x"));
+		imports.put("e", Arrays.asList("a"));
+		return new OmlImportGraph(imports);
+	}
+
+	@Test
+	public void testImportedClosure() {
+		final OmlImportGraph graph = createGraph();
+		assertEquals(Arrays.asList("b", "c", "d"), new ArrayList<>(graph.getImportedClosureIris("a")));
+		assertEquals(Arrays.asList("c", "a", "d"), new ArrayList<>(graph.getImportedClosureIris("b")));
+		assertEquals(Arrays.asList("a", "b", "d"), new ArrayList<>(graph.getImportedClosureIris("c")));
+		assertEquals(Arrays.asList("a", "b", "c", "d"), new ArrayList<>(graph.getImportedClosureIris("e")));
+		assertTrue(graph.getImportedClosureIris("d").isEmpty());
+		assertTrue(graph.getImportedClosureIris("x").isEmpty());
+	}
+
+	@Test
+	public void testDependents() {
+		final OmlImportGraph graph = createGraph();
+		assertEquals(Arrays.asList("c", "e", "b"), new ArrayList<>(graph.getDependents("a")));
+		assertEquals(Arrays.asList("a", "c", "e"), new ArrayList<>(graph.getDependents("b")));
+		assertEquals(Arrays.asList("b", "a", "e"), new ArrayList<>(graph.getDependents("c")));
+		assertEquals(Arrays.asList("a", "c", "e", "b"), new ArrayList<>(graph.getDependents("d")));
+		assertEquals(Arrays.asList("d", "a", "c", "e", "b"), new ArrayList<>(graph.getDependents("x")));
+		assertTrue(graph.getDependents("e").isEmpty());
+	}
+}
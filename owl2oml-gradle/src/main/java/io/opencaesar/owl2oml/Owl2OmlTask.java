@@ -106,7 +106,7 @@ public abstract class Owl2OmlTask extends DefaultTask {
     public abstract ListProperty<File> getSourcePaths();
 
 	/**
-	 * Extension for the input OWL files (default=ttl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld).
+	 * Extension for the input OWL files (default=ttl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld, brf, each optionally followed by .gz).
 	 * 
 	 * @return String Property
 	 */
@@ -123,6 +123,15 @@ public abstract class Owl2OmlTask extends DefaultTask {
     @Input
     public abstract Property<String> getOutputFileExtension();
 
+	/**
+	 * Number of threads to load OWL files in parallel (default=1, 0=number of cores).
+	 * 
+	 * @return Integer Property
+	 */
+    @Optional
+    @Input
+    public abstract Property<Integer> getThreads();
+
 	/**
 	 * The debug flag
 	 * 
@@ -209,6 +218,10 @@ public abstract class Owl2OmlTask extends DefaultTask {
         	args.add("-of");
         	args.add(getOutputFileExtension().get());
 		}
+	    if (getThreads().isPresent()) {
+    		args.add("-t");
+        	args.add(getThreads().get().toString());
+	    }
 		if (getDebug().isPresent() && getDebug().get()) {
 		    args.add("-d");
 	    }
@@ -46,6 +46,7 @@ import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.BinaryRDFDocumentFormat;
 import org.semanticweb.owlapi.formats.N3DocumentFormat;
 import org.semanticweb.owlapi.formats.NQuadsDocumentFormat;
 import org.semanticweb.owlapi.formats.NQuadsDocumentFormatFactory;
@@ -59,6 +60,9 @@ import org.semanticweb.owlapi.formats.TrigDocumentFormat;
 import org.semanticweb.owlapi.formats.TrigDocumentFormatFactory;
 import org.semanticweb.owlapi.formats.TrixDocumentFormat;
 import org.semanticweb.owlapi.formats.TrixDocumentFormatFactory;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.GZipFileDocumentSource;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLDocumentFormat;
 import org.semanticweb.owlapi.model.OWLDocumentFormatFactory;
@@ -109,7 +113,7 @@ public class Owl2OmlApp {
 	
 	@Parameter(
 			names = { "--input-file-extension", "-if" },
-			description = "Extensions for the input OWL files (default=ttl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld)",
+			description = "Extensions for the input OWL files (default=ttl, options: owl, rdf, xml, rj, ttl, n3, nt, trig, nq, trix, jsonld, brf, each optionally followed by .gz)",
 			validateWith = InputFileExtensionValidator.class,
 			required = false,
 			order = 4)
@@ -123,17 +127,24 @@ public class Owl2OmlApp {
 			order = 5)
 	private String outputFileExtension = "oml";
 
+	@Parameter(
+			names = { "--threads", "-t" }, 
+			description = "Number of threads to load OWL files in parallel (Optional, default=1, 0=number of cores)", 
+			required = false,
+			order = 6)
+	private int threads = 1;
+
 	@Parameter(
 			names = { "--debug", "-d" },
 			description = "Shows debug logging statements",
-			order = 6)
+			order = 7)
 	private boolean debug;
 
 	@Parameter(
 			names = { "--help", "-h" },
 			description = "Displays summary of options",
 			help = true,
-			order = 7)
+			order = 8)
 	private boolean help;
 
 	private final Logger LOGGER = LogManager.getLogger(Owl2OmlApp.class);
@@ -211,20 +222,24 @@ public class Owl2OmlApp {
 		System.out.println(files.size()+" owl file(s) have changed");
         
         // Load the input ontologies in memory
-        files.forEach(file -> {
-            try {
-                LOGGER.info("Loading " + file.getAbsolutePath());
-                // Do not load a doc again if it's transitively loaded through impact
-                if (!mapper.isDocumentIRIMapped(IRI.create(file))) {
-	                final OWLOntology ontology = manager.loadOntologyFromOntologyDocument(file);
-	                if (ontology == null) {
-	                    throw new RuntimeException("couldn't load ontology " + file);
+        if (getThreadCount() > 1) {
+        	new ParallelOwlLoader(manager, mapper, Owl2OmlApp::createDocumentSource, getThreadCount()).load(files);
+        } else {
+	        files.forEach(file -> {
+	            try {
+	                LOGGER.info("Loading " + file.getAbsolutePath());
+	                // Do not load a doc again if it's transitively loaded through impact
+	                if (!mapper.isDocumentIRIMapped(IRI.create(file))) {
+		                final OWLOntology ontology = manager.loadOntologyFromOntologyDocument(createDocumentSource(file));
+		                if (ontology == null) {
+		                    throw new RuntimeException("couldn't load ontology " + file);
+		                }
 	                }
-                }
-            } catch (Exception e) {
-            	throw new RuntimeException(e);
-            }
-        });
+	            } catch (Exception e) {
+	            	throw new RuntimeException(e);
+	            }
+	        });
+        }
 		
 		OmlStandaloneSetup.doSetup();
 		OmlXMIResourceFactory.register();
@@ -279,6 +294,26 @@ public class Owl2OmlApp {
 		LOGGER.info("=================================================================");
 	}
 
+	private int getThreadCount() {
+		return (threads > 0) ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Creates the document source of the given file, which decompresses gzip compressed files and gives the
+	 * parser the format of binary files (instead of letting it try the text parsers first)
+	 * @param file The given file
+	 * @return OWLOntologyDocumentSource
+	 */
+	private static OWLOntologyDocumentSource createDocumentSource(File file) {
+		final String extension = OwlCatalog.getFileExtension(file);
+		final boolean binary = InputFileExtensionValidator.extensions.get(OwlCatalog.getFormatExtension(extension)) == BinaryRDFDocumentFormat.class;
+		final OWLDocumentFormat format = binary ? new BinaryRDFDocumentFormat() : null;
+		if (OwlCatalog.isCompressed(extension)) {
+			return new GZipFileDocumentSource(file, IRI.create(file), format, null);
+		}
+		return new FileDocumentSource(file, format);
+	}
+
 	/**
 	 * Determines if the given uri can be updated (in the given source folder paths)
 	 * @param uri The given uri
@@ -387,8 +422,8 @@ public class Owl2OmlApp {
 		}
 		@Override
 		public void validate(final String name, final String value) throws ParameterException {
-			if (!extensions.containsKey(value)) {
-				throw new ParameterException((("Parameter " + name) + " should be a valid OWL file extension: " +
+			if (!extensions.containsKey(OwlCatalog.getFormatExtension(value))) {
+				throw new ParameterException((("Parameter " + name) + " should be a valid OWL file extension (optionally followed by ."+OwlCatalog.GZIP_EXTENSION+"): " +
 						extensions.keySet().stream().reduce( (x,y) -> x + " " + y) ));
 			}
 		}
@@ -409,6 +444,8 @@ public class Owl2OmlApp {
 			extensions.put("trig", TrigDocumentFormat.class);
 			extensions.put("trix", TrixDocumentFormat.class);
 			extensions.put("nq", NQuadsDocumentFormat.class);
+			// binary formats
+			extensions.put("brf", BinaryRDFDocumentFormat.class);
 		}
 
 		// Workaround.
@@ -22,13 +22,26 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.xml.resolver.Catalog;
 import org.apache.xml.resolver.CatalogEntry;
@@ -51,6 +64,16 @@ public class OwlCatalog {
         manager.setIgnoreMissingProperties(true);
     }
 
+    /**
+     * The extension appended to the extension of gzip compressed ontology files (e.g., ttl.gz)
+     */
+    public static final String GZIP_EXTENSION = "gz";
+
+    /**
+     * The prefix of URNs of public ids, which the wrapped catalog resolves as public ids
+     */
+    private static final String PUBLIC_ID_URN_PREFIX = "urn:publicid:";
+
     /**
      * The wrapped Apache catalog
      */
@@ -65,6 +88,31 @@ public class OwlCatalog {
 	 * A registry of document IRIs that have been mapped so far
 	 */
     protected Map<String, IRI> documentIris;
+
+	/**
+	 * The document IRIs that have been mapped so far (an index of the values of documentIris)
+	 */
+    protected Set<IRI> mappedDocumentIris;
+
+	/**
+	 * The rewrite URIs of the catalog by their start strings
+	 */
+    private final Map<String, URI> rewriteRules;
+
+	/**
+	 * A trie of the start strings of the rewrite rules with their rewrite prefixes
+	 */
+    private final PrefixTrie<String> rewritePrefixes;
+
+	/**
+	 * A trie of the (normalized) rewrite prefixes of the rewrite rules with their start strings
+	 */
+    private final PrefixTrie<String> uriStartStrings;
+
+	/**
+	 * Whether the catalog has entries (other than rewrite rules) that take precedence when resolving URIs
+	 */
+    private final boolean hasUriEntries;
 	
 	
 	/**
@@ -77,12 +125,29 @@ public class OwlCatalog {
 		if (null == catalogFile || !catalogFile.isFile() || !catalogFile.isAbsolute())
 			throw new IllegalArgumentException("The catalogFile must exist and be an absolute path: " + catalogFile);
 		this.fileExtensions = fileExtensions;
-		this.documentIris = new HashMap<>();
+		this.documentIris = new ConcurrentHashMap<>();
+		this.mappedDocumentIris = ConcurrentHashMap.newKeySet();
     	catalog = new CatalogEx(catalogFile.toURI());
         catalog.setCatalogManager(manager);
         catalog.setupReaders();
         catalog.loadSystemCatalogs();
         catalog.parseCatalog(catalogFile.toURI().toURL());
+        // the catalog does not change once parsed, so its rewrite rules are indexed once
+        rewriteRules = Collections.unmodifiableMap(createRewriteRules());
+        final var rewritePrefixesBuilder = PrefixTrie.<String>builder();
+        final var uriStartStringsBuilder = PrefixTrie.<String>builder();
+        var uriEntries = false;
+		for (CatalogEntry e : getEntries()) {
+			if (e.getEntryType() == Catalog.REWRITE_URI) {
+				rewritePrefixesBuilder.add(e.getEntryArg(0), e.getEntryArg(1));
+				uriStartStringsBuilder.add(normalize(e.getEntryArg(1)), e.getEntryArg(0));
+			} else if (e.getEntryType() == Catalog.URI) {
+				uriEntries = true;
+			}
+		}
+		hasUriEntries = uriEntries;
+		rewritePrefixes = rewritePrefixesBuilder.build();
+		uriStartStrings = uriStartStringsBuilder.build();
 	}
 
 	/**
@@ -99,14 +164,49 @@ public class OwlCatalog {
 		public IRIMapper(File catalogFile, List<String> fileExtensions) throws IOException {
 			super(catalogFile, fileExtensions);
 		}
+
+		// the document IRIs resolved so far
+		private final Map<IRI, IRI> resolvedIris = new ConcurrentHashMap<>();
+
+		// the index of the files in the rewrite folders (built on first use)
+		private volatile FileIndex fileIndex;
 		
 		@Override
 		public IRI getDocumentIRI(IRI originalIri) {
+			IRI documentIri = resolvedIris.get(originalIri);
+			if (documentIri == null) {
+				documentIri = resolveDocumentIRI(originalIri);
+				if (documentIri != null) {
+					resolvedIris.put(originalIri, documentIri);
+				}
+			}
+			return documentIri;
+		}
+
+		/**
+		 * Invalidates the cached resolutions and the index of the files in the rewrite folders (to be called
+		 * when files are added or removed in a long-lived process)
+		 */
+		public void invalidate() {
+			resolvedIris.clear();
+			fileIndex = null;
+		}
+
+		private IRI resolveDocumentIRI(IRI originalIri) {
 			try {
-				String documentUri = catalog.resolveURI(originalIri.toString());
+				String documentUri = resolveUri(originalIri.toString());
 				if (documentUri != null && documentUri.startsWith("file:")) {
 					File f = new File(new URI(documentUri));
-					if (!f.exists() || !f.isFile()) {
+					final FileIndex index = getFileIndex();
+					final String path = f.toPath().normalize().toString();
+					if (index.covers(path)) {
+						if (!index.files.contains(path)) {
+							final String ext = index.extensions.get(path);
+							if (ext != null) {
+								return createDocumentIRI(documentUri+"."+ext);
+							}
+						}
+					} else if (!f.exists() || !f.isFile()) {
 						for ( String ext : fileExtensions ) {
 							String fileWithExtensionPath = f.toString()+"." + ext;
 							File f_ext = new File(fileWithExtensionPath);
@@ -122,12 +222,40 @@ public class OwlCatalog {
 			}
 		}
 
-		private IRI createDocumentIRI(String documentUri) throws URISyntaxException {
-			IRI iri = documentIris.get(documentUri);
-			if (iri == null) {
-				documentIris.put(documentUri, iri = IRI.create(new URI(documentUri).normalize()));
+		@Override
+		protected List<File> getFiles(File folder) {
+			// the files are taken from the walk that indexes the folder (so the folder is walked once)
+			try {
+				final List<Path> walkedFiles = getFileIndex().walkedFiles.get(folder.toPath().normalize().toString());
+				if (walkedFiles != null) {
+					return filterFiles(walkedFiles, fileExtensions);
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
 			}
-			return iri;
+			return super.getFiles(folder);
+		}
+
+		private FileIndex getFileIndex() throws IOException {
+			FileIndex index = fileIndex;
+			if (index == null) {
+				synchronized (this) {
+					index = fileIndex;
+					if (index == null) {
+						fileIndex = index = new FileIndex(getRewriteRules().values(), fileExtensions);
+					}
+				}
+			}
+			return index;
+		}
+
+		private IRI createDocumentIRI(String documentUri) {
+			// the document IRI is registered in both maps atomically
+			return documentIris.computeIfAbsent(documentUri, u -> {
+				final IRI iri = IRI.create(URI.create(u).normalize());
+				mappedDocumentIris.add(iri);
+				return iri;
+			});
 		}
 }
 	
@@ -138,7 +266,7 @@ public class OwlCatalog {
 	 * @return true if the iri has been mapped, otherwise false
 	 */
 	public boolean isDocumentIRIMapped(IRI iri) {
-		return documentIris.values().contains(iri);
+		return mappedDocumentIris.contains(iri);
 	}
 	
     /**
@@ -172,6 +300,10 @@ public class OwlCatalog {
      * @return a map of rewrite URIs
      */
     public Map<String, URI> getRewriteRules() {
+    	return rewriteRules;
+    }
+
+    private Map<String, URI> createRewriteRules() {
 		var rewriteUris = new HashMap<String, URI>();
 		for (CatalogEntry e : getEntries()) {
 			if (e.getEntryType() == Catalog.REWRITE_URI) { // only type of entry supported so far
@@ -198,20 +330,37 @@ public class OwlCatalog {
      * @throws IOException if the physical URI cannot be deresolved to a logical URI
      */
     public String deresolveUri(String uri) throws IOException {
-		for (CatalogEntry e : catalog.getCatalogEntries()) {
-			if (e.getEntryType() == Catalog.REWRITE_URI) {
-				String uriStartString = e.getEntryArg(0);
-				String rewriteUri = normalize(e.getEntryArg(1));
-				int i =  uri.toString().indexOf(rewriteUri);
-				if (i != -1) {
-					var pathWithNoExt = uri.substring(0, uri.lastIndexOf("."));
-					return pathWithNoExt.replace(rewriteUri, uriStartString);
-				}
-			}
+		final var match = uriStartStrings.findLongestPrefix(uri);
+		if (match != null) {
+			var pathWithNoGzipExt = uri.endsWith("."+GZIP_EXTENSION) ? uri.substring(0, uri.lastIndexOf(".")) : uri;
+			var pathWithNoExt = pathWithNoGzipExt.substring(0, pathWithNoGzipExt.lastIndexOf("."));
+			return match.value + pathWithNoExt.substring(match.length);
 		}
     	return null;
     }
 
+    /**
+     * Resolves the given logical uri to a physical Uri
+     * 
+     * @param uri The logical URI to resolve
+     * @return The resolved physical URI, or null if the catalog does not resolve it
+     * @throws IOException if the logical URI cannot be resolved
+     */
+    public String resolveUri(String uri) throws IOException {
+		// the uri is normalized like the wrapped catalog does (e.g., spaces and non-ASCII characters are percent-encoded)
+		final String normalizedUri = catalog.normalizeUri(uri);
+		if (!hasUriEntries && normalizedUri != null && !normalizedUri.startsWith(PUBLIC_ID_URN_PREFIX)) {
+			final var match = rewritePrefixes.findLongestPrefix(normalizedUri);
+			if (match != null) {
+				return match.value + normalizedUri.substring(match.length);
+			}
+		}
+		// fall back on the wrapped catalog for public ids and the other (e.g., delegated) entries, which is not thread-safe
+		synchronized (catalog) {
+			return catalog.resolveURI(uri);
+		}
+    }
+
     /**
      * Gets the catalog entries
      * 
@@ -232,6 +381,9 @@ public class OwlCatalog {
 				e.printStackTrace();
 			}
     	}
+        public String normalizeUri(String uri) {
+            return normalizeURI(uri);
+        }
         public List<CatalogEntry> getCatalogEntries() {
             List<CatalogEntry> entries = new ArrayList<CatalogEntry>();
             Enumeration<?> en = catalogEntries.elements();
@@ -247,28 +399,146 @@ public class OwlCatalog {
         }
     }
 	
-	private List<File> getFiles(File folder) {
-		final var files = new LinkedHashSet<File>();
-		for (File file : folder.listFiles()) {
-			if (file.isFile()) {
-				var ext = getFileExtension(file);
-				if (fileExtensions.contains(ext)) {
+	/**
+	 * Gets the files with the ontology file extensions in the given folder and its subfolders
+	 * 
+	 * @param folder The given folder
+	 * @return The files sorted by path
+	 */
+	protected List<File> getFiles(File folder) {
+		try {
+			return filterFiles(walkFiles(folder.toPath()), fileExtensions);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static List<File> filterFiles(List<Path> paths, List<String> fileExtensions) {
+		final var files = new ArrayList<File>();
+		for (Path file : paths) {
+			if (fileExtensions.contains(getFileExtension(file.toFile()))) {
+				files.add(file.toFile());
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Walks the given folder (following links) with a single pass that reads the attributes of the files in bulk
+	 * 
+	 * @param folder The given folder
+	 * @return The regular files in the folder and its subfolders, sorted by path
+	 * @throws IOException if the folder cannot be walked
+	 */
+	private static List<Path> walkFiles(Path folder) throws IOException {
+		final var files = new ArrayList<Path>();
+		Files.walkFileTree(folder, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (attrs.isRegularFile()) {
 					files.add(file);
 				}
-			} else if (file.isDirectory()) {
-				files.addAll(getFiles(file));
+				return FileVisitResult.CONTINUE;
 			}
-		}
-		return new ArrayList<File>(files);
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+				// skip the links that cycle back to a parent folder
+				if (e instanceof FileSystemLoopException) {
+					return FileVisitResult.CONTINUE;
+				}
+				throw e;
+			}
+		});
+		// the order of the walk depends on the file system
+		files.sort(null);
+		return files;
 	}
 	
-	private String getFileExtension(final File file) {
+	/**
+	 * An index of the files in the rewrite folders of a catalog, built with a single walk of each folder
+	 */
+	private static class FileIndex {
+		// the normalized paths of the indexed folders
+		private final List<String> roots = new ArrayList<>();
+		// the normalized paths of all the files in the folders
+		private final Set<String> files = new HashSet<>();
+		// the extension of the files with a given path without extension (the first of the extensions wins)
+		private final Map<String, String> extensions = new HashMap<>();
+		// the files found by the walk of each indexed folder (sorted by path)
+		private final Map<String, List<Path>> walkedFiles = new HashMap<>();
+
+		private FileIndex(Collection<URI> rewriteUris, List<String> fileExtensions) throws IOException {
+			for (URI rewriteUri : rewriteUris) {
+				if (!"file".equals(rewriteUri.getScheme())) {
+					continue;
+				}
+				final Path root = Paths.get(rewriteUri).normalize();
+				if (!Files.isDirectory(root)) {
+					continue;
+				}
+				roots.add(root.toString());
+				final List<Path> rootFiles = walkFiles(root);
+				walkedFiles.put(root.toString(), rootFiles);
+				for (Path file : rootFiles) {
+					final String path = file.toString();
+					files.add(path);
+					final String ext = getFileExtension(file.toFile());
+					if (fileExtensions.contains(ext)) {
+						extensions.merge(path.substring(0, path.length()-ext.length()-1), ext,
+							(e1, e2) -> fileExtensions.indexOf(e1) <= fileExtensions.indexOf(e2) ? e1 : e2);
+					}
+				}
+			}
+		}
+
+		private boolean covers(String path) {
+			for (String root : roots) {
+				if (path.startsWith(root + File.separator)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the extension of the given file, including the extension it has before a gzip extension (e.g., ttl.gz)
+	 * 
+	 * @param file The given file
+	 * @return The extension of the file
+	 */
+	static String getFileExtension(final File file) {
 	    String fileName = file.getName();
+	    String gzipExt = "";
+	    if (fileName.endsWith("."+GZIP_EXTENSION)) {
+	    	fileName = fileName.substring(0, fileName.lastIndexOf("."));
+	    	gzipExt = "."+GZIP_EXTENSION;
+	    }
 	    if (fileName.lastIndexOf(".") != -1)
-	    	return fileName.substring(fileName.lastIndexOf(".")+1);
+	    	return fileName.substring(fileName.lastIndexOf(".")+1)+gzipExt;
 	    else 
 	    	return "";
 	}
+
+	/**
+	 * Determines if the given file extension is that of a gzip compressed file
+	 * 
+	 * @param extension The given file extension
+	 * @return true if the extension ends with the gzip extension, otherwise false
+	 */
+	static boolean isCompressed(final String extension) {
+		return extension.endsWith("."+GZIP_EXTENSION);
+	}
+
+	/**
+	 * Gets the extension of the format of files with the given extension (i.e., without the gzip extension)
+	 * 
+	 * @param extension The given file extension
+	 * @return The format extension
+	 */
+	static String getFormatExtension(final String extension) {
+		return isCompressed(extension) ? extension.substring(0, extension.length()-GZIP_EXTENSION.length()-1) : extension;
+	}
 	
     private String normalize(String path) {
     	java.net.URI uri = java.net.URI.create(path);
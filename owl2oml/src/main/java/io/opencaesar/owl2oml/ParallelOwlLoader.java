@@ -0,0 +1,207 @@
+/**
+ * 
+ * Copyright 2024 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.owl2oml;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.OntologyCopy;
+
+/**
+ * A loader that parses Owl documents in parallel, each thread with its own manager (a manager parses one
+ * document at a time even when it is concurrent), and then moves the parsed ontologies to a single manager.
+ * 
+ * A thread's manager loads the imports that the catalog maps to files before the document that imports them
+ * (like the manager of a sequential load does), so the parser of a document sees the entities declared in
+ * its import closure and gives the same ontology as a sequential load. A document that was already loaded
+ * (as an import) by any thread is not parsed again, but an import needed by documents on different threads
+ * is parsed by each of them, and only one copy is kept. The imports that are not mapped to files are loaded
+ * by the target manager at the end (like the manager does when it loads a document).
+ */
+class ParallelOwlLoader {
+
+	// the document IRI of the imports not mapped to files in the parsing managers, which fails to load (and is silently ignored)
+	private static final IRI UNRESOLVED_IMPORT = IRI.create("file:///unresolved/import");
+
+	private final Logger LOGGER = LogManager.getLogger(ParallelOwlLoader.class);
+
+	private final OWLOntologyManager manager;
+	private final OwlCatalog.IRIMapper mapper;
+	private final Function<File, OWLOntologyDocumentSource> sources;
+	private final int threadCount;
+	// the document IRIs loaded (or being loaded) by any parsing manager
+	private final Set<IRI> loadedDocumentIris = ConcurrentHashMap.newKeySet();
+	// the number of imports that were loaded by more than one parsing manager
+	private final AtomicInteger duplicateCount = new AtomicInteger();
+	private final ThreadLocal<OWLOntologyManager> parsingManagers = ThreadLocal.withInitial(() -> {
+		final OWLOntologyManager parsingManager = OWLManager.createOWLOntologyManager();
+		parsingManager.getIRIMappers().clear();
+		parsingManager.getIRIMappers().add(iri -> {
+			final IRI documentIri = getFileDocumentIRI(iri);
+			return (documentIri != null) ? documentIri : UNRESOLVED_IMPORT;
+		});
+		parsingManager.getOntologyConfigurator().setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
+		parsingManager.addOntologyLoaderListener(new OWLOntologyLoaderListener() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public void startedLoadingOntology(LoadingStartedEvent event) {
+				if (event.isImported() && !UNRESOLVED_IMPORT.equals(event.getDocumentIRI())) {
+					LOGGER.info("Loading " + event.getDocumentIRI());
+					if (!loadedDocumentIris.add(event.getDocumentIRI())) {
+						duplicateCount.incrementAndGet();
+					}
+				}
+			}
+			@Override
+			public void finishedLoadingOntology(LoadingFinishedEvent event) {
+			}
+		});
+		return parsingManager;
+	});
+
+	/**
+	 * Creates a new ParallelOwlLoader object
+	 *
+	 * @param manager The manager to load the ontologies into
+	 * @param mapper The catalog-based IRI mapper of the manager
+	 * @param sources A function that creates the document source of a file
+	 * @param threadCount The number of threads used to parse documents
+	 */
+	public ParallelOwlLoader(OWLOntologyManager manager, OwlCatalog.IRIMapper mapper, Function<File, OWLOntologyDocumentSource> sources, int threadCount) {
+		this.manager = manager;
+		this.mapper = mapper;
+		this.sources = sources;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Loads the ontologies of the given files along with their import closures
+	 *
+	 * @param files The files to load
+	 * @throws Exception when a file fails to load
+	 */
+	public void load(Collection<File> files) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			final Set<File> requested = new HashSet<>();
+			Collection<File> pending = files;
+			while (!pending.isEmpty()) {
+				// parse the pending files in parallel (with their imports)
+				final Map<File, Future<OWLOntology>> parses = new LinkedHashMap<>();
+				for (File file : pending) {
+					if (requested.add(file.getAbsoluteFile())) {
+						parses.put(file, executor.submit(() -> parse(file)));
+					}
+				}
+				
+				// move the parsed ontologies and their imports to the manager (in a deterministic order)
+				final List<OWLOntology> loaded = new ArrayList<>();
+				for (var entry : parses.entrySet()) {
+					final OWLOntology parsed = get(entry.getValue());
+					if (parsed == null) {
+						continue; // already loaded as an import
+					}
+					for (OWLOntology ontology : parsed.importsClosure().collect(Collectors.toList())) {
+						final OWLOntologyManager parsingManager = ontology.getOWLOntologyManager();
+						if (parsingManager == manager) {
+							continue; // already moved with the closure of another document
+						}
+						if (manager.contains(ontology.getOntologyID())) {
+							parsingManager.removeOntology(ontology); // a copy of an import parsed by another thread
+						} else {
+							loaded.add(manager.copyOntology(ontology, OntologyCopy.MOVE));
+						}
+					}
+				}
+				
+				// collect the files of the imports that are not loaded yet (those that failed to load in a parsing manager)
+				pending = new LinkedHashSet<>();
+				for (OWLOntology ontology : loaded) {
+					for (OWLImportsDeclaration import_ : ontology.importsDeclarations().collect(Collectors.toList())) {
+						final IRI documentIri = getFileDocumentIRI(import_.getIRI());
+						if (documentIri != null && !manager.contains(import_.getIRI())) {
+							pending.add(new File(documentIri.toURI()));
+						}
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		if (duplicateCount.get() > 0) {
+			LOGGER.info(duplicateCount.get()+" import(s) loaded by more than one thread");
+		}
+		
+		// load the other imports (those not mapped to files) like the manager does when it loads a document
+		for (OWLOntology ontology : manager.ontologies().collect(Collectors.toList())) {
+			ontology.importsDeclarations().forEach(i -> manager.makeLoadImportRequest(i));
+		}
+	}
+
+	private OWLOntology parse(File file) throws Exception {
+		if (!loadedDocumentIris.add(IRI.create(file))) {
+			return null;
+		}
+		LOGGER.info("Loading " + file.getAbsolutePath());
+		return parsingManagers.get().loadOntologyFromOntologyDocument(sources.apply(file));
+	}
+
+	private IRI getFileDocumentIRI(IRI iri) {
+		final IRI documentIri = mapper.getDocumentIRI(iri);
+		if (documentIri != null && "file".equals(documentIri.getScheme())) {
+			if (new File(documentIri.toURI()).isFile()) {
+				return documentIri;
+			}
+		}
+		return null;
+	}
+
+	private static <T> T get(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+		}
+	}
+}
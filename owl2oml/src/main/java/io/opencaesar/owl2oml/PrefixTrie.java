@@ -0,0 +1,134 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.owl2oml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable trie of string prefixes that finds the longest prefix of a given string in time proportional
+ * to the length of the string. It is built once (from prefixes added in order, where the first value added
+ * for a prefix wins) and is safe to query concurrently.
+ *
+ * @param <V> The type of the values of the prefixes
+ */
+class PrefixTrie<V> {
+
+	private final Node<V> root;
+
+	private PrefixTrie(Node<V> root) {
+		this.root = root;
+	}
+
+	/**
+	 * Finds the longest prefix of the given string
+	 *
+	 * @param s The given string
+	 * @return The match of the longest prefix, or null if no prefix matches
+	 */
+	public Match<V> findLongestPrefix(String s) {
+		Node<V> node = root;
+		Match<V> match = (node.value != null) ? new Match<>(0, node.value) : null;
+		for (int i = 0; i < s.length(); i++) {
+			node = node.children.get(s.charAt(i));
+			if (node == null) {
+				break;
+			}
+			if (node.value != null) {
+				match = new Match<>(i+1, node.value);
+			}
+		}
+		return match;
+	}
+
+	/**
+	 * Creates a new builder of a prefix trie
+	 *
+	 * @param <V> The type of the values of the prefixes
+	 * @return a new builder
+	 */
+	public static <V> Builder<V> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * A match of a prefix in a string
+	 *
+	 * @param <V> The type of the value of the prefix
+	 */
+	public static class Match<V> {
+		/**
+		 * The length of the matched prefix
+		 */
+		public final int length;
+		/**
+		 * The value of the matched prefix
+		 */
+		public final V value;
+
+		private Match(int length, V value) {
+			this.length = length;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * A builder of a prefix trie
+	 *
+	 * @param <V> The type of the values of the prefixes
+	 */
+	public static class Builder<V> {
+		private final Node<V> root = new Node<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Adds the given prefix unless it was added before
+		 *
+		 * @param prefix The prefix
+		 * @param value The value of the prefix
+		 * @return this builder
+		 */
+		public Builder<V> add(String prefix, V value) {
+			Node<V> node = root;
+			for (int i = 0; i < prefix.length(); i++) {
+				node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node<>());
+			}
+			if (node.value == null) {
+				node.value = value;
+			}
+			return this;
+		}
+
+		/**
+		 * Builds the prefix trie (the builder should not be used afterwards)
+		 *
+		 * @return the prefix trie
+		 */
+		public PrefixTrie<V> build() {
+			return new PrefixTrie<>(root);
+		}
+	}
+
+	private static class Node<V> {
+		private final Map<Character, Node<V>> children = new HashMap<>();
+		private V value;
+	}
+}
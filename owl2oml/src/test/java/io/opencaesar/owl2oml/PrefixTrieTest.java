@@ -0,0 +1,80 @@
+/**
+ *
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package io.opencaesar.owl2oml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests the longest prefix lookup of the prefix trie
+ */
+public class PrefixTrieTest {
+
+	@Test
+	public void testLongestPrefix() {
+		final PrefixTrie<String> trie = PrefixTrie.<String>builder()
+				.add("http://example.com/", "example")
+				.add("http://example.com/vocabulary#", "vocabulary")
+				.add("http://example.com/vocabulary/", "folder")
+				.build();
+		assertMatch(trie, "http://example.com/vocabulary#Concept", 30, "vocabulary");
+		assertMatch(trie, "http://example.com/vocabulary/Concept", 30, "folder");
+		assertMatch(trie, "http://example.com/vocabulary", 19, "example");
+		assertMatch(trie, "http://example.com/vocabulary#", 30, "vocabulary");
+	}
+
+	@Test
+	public void testFirstValueWins() {
+		final PrefixTrie<String> trie = PrefixTrie.<String>builder()
+				.add("http://example.com/vocabulary#", "first")
+				.add("http://example.com/vocabulary#", "second")
+				.build();
+		assertMatch(trie, "http://example.com/vocabulary#Concept", 30, "first");
+	}
+
+	@Test
+	public void testNoMatch() {
+		final PrefixTrie<String> trie = PrefixTrie.<String>builder()
+				.add("http://example.com/vocabulary#", "vocabulary")
+				.build();
+		assertNull(trie.findLongestPrefix("http://example.org/vocabulary#Concept"));
+		assertNull(trie.findLongestPrefix("http://example.com/"));
+		assertNull(trie.findLongestPrefix(""));
+		assertNull(PrefixTrie.<String>builder().build().findLongestPrefix("http://example.com/"));
+	}
+
+	@Test
+	public void testEmptyPrefix() {
+		final PrefixTrie<String> trie = PrefixTrie.<String>builder()
+				.add("", "any")
+				.add("http://example.com/", "example")
+				.build();
+		assertMatch(trie, "http://example.com/vocabulary#Concept", 19, "example");
+		assertMatch(trie, "http://example.org/", 0, "any");
+		assertMatch(trie, "", 0, "any");
+	}
+
+	private static void assertMatch(PrefixTrie<String> trie, String s, int length, String value) {
+		final PrefixTrie.Match<String> match = trie.findLongestPrefix(s);
+		assertEquals(length, match.length);
+		assertEquals(value, match.value);
+	}
+}